@@ -0,0 +1,115 @@
+#!/usr/bin/env python3
+"""Сравнение результатов JMH (-rf json) с базовыми из bench/baseline.json.
+
+    python3 bench/compare.py results.json              # таблица и код 1, если есть регрессии
+    python3 bench/compare.py results.json --save       # записать results.json как новую базу
+
+Регрессия по времени - рост score больше порога (--time-threshold) и больше суммы погрешностей обоих замеров.
+Регрессия по памяти - рост gc.alloc.rate.norm (байт на операцию, от -prof gc) больше порога (--alloc-threshold)
+и больше 1 байта: эта метрика почти не шумит, поэтому порог у неё строже.
+"""
+import argparse
+import json
+import os
+import sys
+
+BASELINE = os.path.join(os.path.dirname(os.path.abspath(__file__)), "baseline.json")
+ALLOC = "gc.alloc.rate.norm"
+
+
+def key(result):
+    name = result["benchmark"].rsplit(".", 2)
+    params = result.get("params") or {}
+    suffix = ",".join("%s=%s" % (k, params[k]) for k in sorted(params))
+    short = name[-2] + "." + name[-1]
+    return short + ("[" + suffix + "]" if suffix else "")
+
+
+def summarize(results):
+    summary = {}
+    for result in results:
+        primary = result["primaryMetric"]
+        alloc = (result.get("secondaryMetrics") or {}).get(ALLOC)
+        summary[key(result)] = {
+            "score": round(primary["score"], 3),
+            "error": round(primary["scoreError"], 3) if primary["scoreError"] == primary["scoreError"] else 0.0,
+            "unit": primary["scoreUnit"],
+            "allocBytesPerOp": round(alloc["score"], 1) if alloc else None,
+        }
+    return summary
+
+
+def load(path):
+    with open(path, encoding="utf-8") as file:
+        data = json.load(file)
+    # база хранится уже сжатой, результаты прогона - как их пишет JMH
+    return summarize(data) if isinstance(data, list) else data["benchmarks"]
+
+
+def save(path):
+    with open(path, encoding="utf-8") as file:
+        results = json.load(file)
+    summary = summarize(results)
+    # на чём снята база: сравнивать стоит на той же JDK и той же машине
+    jdk = "%s %s" % (results[0]["vmName"], results[0]["vmVersion"]) if results else ""
+    with open(BASELINE, "w", encoding="utf-8") as file:
+        json.dump({"jdk": jdk, "benchmarks": summary}, file, indent=2, sort_keys=True, ensure_ascii=False)
+        file.write("\n")
+    print("База обновлена: %s (%d замеров)" % (BASELINE, len(summary)))
+
+
+def compare(baseline, current, time_threshold, alloc_threshold):
+    regressions = []
+    print("%-60s %14s %14s %8s %12s %12s" % ("benchmark", "base", "now", "delta", "base B/op", "now B/op"))
+    for name in sorted(set(baseline) | set(current)):
+        base = baseline.get(name)
+        now = current.get(name)
+        if base is None or now is None:
+            print("%-60s %s" % (name, "только в базе" if now is None else "новый замер"))
+            continue
+        delta = (now["score"] - base["score"]) / base["score"] if base["score"] else 0.0
+        flags = []
+        if delta > time_threshold and now["score"] - base["score"] > base["error"] + now["error"]:
+            flags.append("время")
+        base_alloc = base.get("allocBytesPerOp")
+        now_alloc = now.get("allocBytesPerOp")
+        if base_alloc is not None and now_alloc is not None \
+                and now_alloc - base_alloc > max(1.0, base_alloc * alloc_threshold):
+            flags.append("память")
+        print("%-60s %11.3f %-2s %11.3f %-2s %+7.1f%% %12s %12s %s" % (
+            name, base["score"], short_unit(base["unit"]), now["score"], short_unit(now["unit"]), delta * 100,
+            fmt(base_alloc), fmt(now_alloc), ("<- " + ", ".join(flags)) if flags else ""))
+        if flags:
+            regressions.append(name)
+    return regressions
+
+
+def short_unit(unit):
+    return unit.split("/")[0]
+
+
+def fmt(value):
+    return "-" if value is None else "%.1f" % value
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Сравнение результатов JMH с bench/baseline.json")
+    parser.add_argument("results", help="файл JMH с -rf json")
+    parser.add_argument("--save", action="store_true", help="сохранить результаты как новую базу")
+    parser.add_argument("--time-threshold", type=float, default=0.10, help="допустимый рост времени, доля")
+    parser.add_argument("--alloc-threshold", type=float, default=0.02, help="допустимый рост байт на операцию, доля")
+    args = parser.parse_args()
+
+    if args.save:
+        save(args.results)
+        return 0
+    regressions = compare(load(BASELINE), load(args.results), args.time_threshold, args.alloc_threshold)
+    if regressions:
+        print("\nРегрессии: %s" % ", ".join(regressions))
+        return 1
+    print("\nРегрессий нет")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
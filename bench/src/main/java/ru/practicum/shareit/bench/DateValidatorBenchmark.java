@@ -0,0 +1,62 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.annotation.DateValidator;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка дат бронирования в gateway: сам DateValidator и полная валидация BookingDtoRequest через Hibernate
+ * Validator, как при POST /bookings, - разница показывает, сколько стоит обвязка вокруг сравнения дат.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateValidatorBenchmark {
+    private final DateValidator dateValidator = new DateValidator();
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BookingDtoRequest valid;
+    private BookingDtoRequest endBeforeStart;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        LocalDateTime start = LocalDateTime.now().plusYears(1);
+        valid = BookingDtoRequest.builder().itemId(1L).start(start).end(start.plusDays(1)).build();
+        endBeforeStart = BookingDtoRequest.builder().itemId(1L).start(start).end(start.minusDays(1)).build();
+    }
+
+    @Benchmark
+    public boolean dates() {
+        return dateValidator.isValid(valid, null);
+    }
+
+    @Benchmark
+    public int request() {
+        return validator.validate(valid).size();
+    }
+
+    @Benchmark
+    public int requestEndBeforeStart() {
+        return validator.validate(endBeforeStart).size();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingListRow;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.comment.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг одного бронирования и одной вещи в ответ: из сущности Booking, из строки-проекции BookingListRow
+ * и ItemDto с соседними бронированиями и комментариями, как в карточке вещи у владельца.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Booking booking;
+    private BookingListRow row;
+    private Item item;
+    private BookingForItemDto lastBooking;
+    private BookingForItemDto nextBooking;
+    private List<CommentDtoResponse> comments;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 12, 0);
+        User owner = User.builder().id(1L).name("Owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("Booker").email("booker@mail.ru").build();
+        item = Item.builder()
+                .id(10L)
+                .name("Дрель")
+                .description("Ударная дрель с набором свёрл")
+                .available(true)
+                .owner(owner)
+                .requestId(5L)
+                .build();
+        booking = Booking.builder()
+                .id(100L)
+                .start(start)
+                .end(start.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .ownerId(owner.getId())
+                .status(BookingStatus.APPROVED)
+                .build();
+        row = new BookingListRow(100L, start, start.plusDays(2), BookingStatus.APPROVED, 10L, "Дрель", 2L);
+        lastBooking = BookingForItemDto.builder().id(99L).bookerId(2L).build();
+        nextBooking = BookingForItemDto.builder().id(101L).bookerId(3L).build();
+        comments = List.of(
+                CommentDtoResponse.builder().id(1L).text("Отличная дрель").authorName("Booker").created(start).build(),
+                CommentDtoResponse.builder().id(2L).text("Сверлит бетон").authorName("Other").created(start).build());
+    }
+
+    @Benchmark
+    public BookingDtoResponse bookingFromEntity() {
+        return BookingMapper.toBookingDtoResponse(booking);
+    }
+
+    @Benchmark
+    public BookingDtoResponse bookingFromRow() {
+        return BookingMapper.toBookingDtoResponse(row);
+    }
+
+    @Benchmark
+    public ItemDto itemWithBookingsAndComments() {
+        return ItemMapper.toItemDto(item, lastBooking, nextBooking, comments);
+    }
+}
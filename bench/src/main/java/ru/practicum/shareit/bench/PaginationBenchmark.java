@@ -0,0 +1,91 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.BookingStateStatus;
+import ru.practicum.shareit.exception.BookingStatusException;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.Paginator;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор параметров списка, который выполняется на каждый GET /bookings и /items: страница из from/size,
+ * курсор keyset-пагинации и state. Неизвестный state меряется отдельно - он заканчивается исключением.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginationBenchmark {
+    private static final Sort SORT_BY_START_DESC = Sort.by(Sort.Direction.DESC, "start");
+
+    private int from;
+    private int size;
+    private PageCursor cursor;
+    private String encodedCursor;
+
+    @Setup
+    public void setUp() {
+        from = 40;
+        size = 20;
+        cursor = new PageCursor(LocalDateTime.of(2024, 3, 1, 12, 0, 15), 12345L);
+        encodedCursor = cursor.encode();
+    }
+
+    @Benchmark
+    public PageRequest simplePage() {
+        return Paginator.simplePage(from, size);
+    }
+
+    @Benchmark
+    public PageRequest pageWithSort() {
+        return Paginator.withSort(from, size, SORT_BY_START_DESC);
+    }
+
+    @Benchmark
+    public String encodeCursor() {
+        return cursor.encode();
+    }
+
+    @Benchmark
+    public PageCursor decodeCursor() {
+        return PageCursor.decode(encodedCursor);
+    }
+
+    @Benchmark
+    public BookingStateStatus toState(States states) {
+        return BookingStateStatus.toState(states.state);
+    }
+
+    @Benchmark
+    public void toStateUnknown(Blackhole blackhole) {
+        try {
+            blackhole.consume(BookingStateStatus.toState("UNKNOWN"));
+        } catch (BookingStatusException ex) {
+            blackhole.consume(ex);
+        }
+    }
+
+    // первая и последняя ветка switch: параметр только у toState, остальные замеры не размножаются
+    @State(Scope.Benchmark)
+    public static class States {
+        @Param({"ALL", "REJECTED"})
+        private String state;
+    }
+}
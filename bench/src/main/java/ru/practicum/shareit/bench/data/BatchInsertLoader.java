@@ -0,0 +1,54 @@
+package ru.practicum.shareit.bench.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+/**
+ * Загрузка пакетными INSERT через JDBC - для H2 и любой другой базы без COPY.
+ * Пакет уходит каждые BATCH_SIZE строк, транзакция фиксируется каждые COMMIT_EVERY строк.
+ */
+public class BatchInsertLoader implements TableLoader {
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_EVERY = 100_000;
+
+    private final Connection connection;
+
+    public BatchInsertLoader(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public RowWriter open(String table, String... columns) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(String.format("INSERT INTO %s (%s) VALUES (%s)",
+                table, String.join(", ", columns), String.join(", ", Collections.nCopies(columns.length, "?"))));
+        return new RowWriter() {
+            private long count;
+
+            @Override
+            public void write(Object... values) throws SQLException {
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                statement.addBatch();
+                count++;
+                if (count % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+                if (count % COMMIT_EVERY == 0) {
+                    connection.commit();
+                }
+            }
+
+            @Override
+            public long finish() throws SQLException {
+                try (statement) {
+                    statement.executeBatch();
+                    connection.commit();
+                    return count;
+                }
+            }
+        };
+    }
+}
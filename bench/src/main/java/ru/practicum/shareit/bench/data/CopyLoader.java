@@ -0,0 +1,76 @@
+package ru.practicum.shareit.bench.data;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Загрузка в PostgreSQL через COPY ... FROM STDIN в формате CSV: строки уходят на сервер кусками по BUFFER_SIZE,
+ * без разбора отдельного INSERT на каждую.
+ */
+public class CopyLoader implements TableLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+
+    public CopyLoader(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.copyManager = new CopyManager(connection.unwrap(BaseConnection.class));
+    }
+
+    @Override
+    public RowWriter open(String table, String... columns) throws SQLException {
+        CopyIn copyIn = copyManager.copyIn(String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+                table, String.join(", ", columns)));
+        return new RowWriter() {
+            private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 1024);
+            private long count;
+
+            @Override
+            public void write(Object... values) throws SQLException {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        buffer.append(',');
+                    }
+                    appendCsv(values[i]);
+                }
+                buffer.append('\n');
+                count++;
+                if (buffer.length() >= BUFFER_SIZE) {
+                    send();
+                }
+            }
+
+            @Override
+            public long finish() throws SQLException {
+                send();
+                copyIn.endCopy();
+                connection.commit();
+                return count;
+            }
+
+            private void send() throws SQLException {
+                byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                buffer.setLength(0);
+            }
+
+            // пустое поле без кавычек - NULL, строки всегда в кавычках
+            private void appendCsv(Object value) {
+                if (value == null) {
+                    return;
+                }
+                if (value instanceof String) {
+                    buffer.append('"').append(((String) value).replace("\"", "\"\"")).append('"');
+                } else {
+                    buffer.append(value);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.bench.data;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Заполнение базы сервера воспроизводимым набором данных для нагрузочных прогонов и замеров запросов.
+ * <pre>
+ * java -cp bench/target/benchmarks.jar ru.practicum.shareit.bench.data.DataGenerator \
+ *     --url=jdbc:postgresql://localhost:6541/shareit --user=root --password=root \
+ *     --seed=42 --users=100000 --items=500000 --requests=50000 --bookings=10000000 --truncate
+ * </pre>
+ * Схема создаётся миграциями сервера. На PostgreSQL строки идут через COPY, на остальных базах - пакетными INSERT.
+ * Без --truncate таблицы должны быть пустыми. --anchor=yyyy-MM-dd задаёт "сегодня" набора (по умолчанию -
+ * текущая дата): при том же anchor совпадают и даты, иначе совпадает всё, кроме сдвига дат.
+ */
+@Slf4j
+public class DataGenerator {
+    // родители раньше детей: внешние ключи проверяются при загрузке
+    private static final List<String> TABLES = List.of("users", "requests", "items", "bookings", "comments");
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = parse(args);
+        Scale scale = Scale.builder()
+                .seed(Long.parseLong(options.getOrDefault("seed", "42")))
+                .users(Integer.parseInt(options.getOrDefault("users", "10000")))
+                .items(Integer.parseInt(options.getOrDefault("items", "25000")))
+                .requests(Integer.parseInt(options.getOrDefault("requests", "5000")))
+                .bookings(Long.parseLong(options.getOrDefault("bookings", "500000")))
+                .commentShare(Double.parseDouble(options.getOrDefault("comment-share", "0.1")))
+                .anchor(LocalDate.parse(options.getOrDefault("anchor", LocalDate.now().toString())).atStartOfDay())
+                .build();
+        String url = required(options, "url");
+        migrate(url, options.get("user"), options.get("password"));
+        try (Connection connection = DriverManager.getConnection(url, options.get("user"), options.get("password"))) {
+            load(connection, scale, options.containsKey("truncate"));
+        }
+    }
+
+    public static Map<String, Long> load(Connection connection, Scale scale, boolean truncate) throws SQLException {
+        Dataset dataset = new Dataset(scale);
+        boolean postgres = isPostgres(connection);
+        connection.setAutoCommit(false);
+        prepareTables(connection, postgres, truncate);
+        TableLoader loader = postgres ? new CopyLoader(connection) : new BatchInsertLoader(connection);
+        log.info("Загрузка набора seed={} через {}: {}", scale.getSeed(), postgres ? "COPY" : "пакетные INSERT", scale);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        long started = System.nanoTime();
+        counts.put("users", timed("users", () -> dataset.writeUsers(loader.open("users", "id", "name", "email"))));
+        counts.put("requests", timed("requests", () -> dataset.writeRequests(
+                loader.open("requests", "id", "description", "requestor_id", "created_date"))));
+        counts.put("items", timed("items", () -> dataset.writeItems(
+                loader.open("items", "id", "name", "description", "is_available", "owner_id", "request_id"))));
+        counts.put("bookings", timed("bookings", () -> dataset.writeBookings(loader.open("bookings",
+                "id", "start_date", "end_date", "item_id", "booker_id", "status", "owner_id"))));
+        counts.put("comments", timed("comments", () -> dataset.writeComments(
+                loader.open("comments", "id", "text", "item_id", "author_id", "created_date"))));
+
+        // id заданы явно, поэтому identity продолжаются после загруженных строк
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, Long> table : counts.entrySet()) {
+                statement.execute(String.format("ALTER TABLE %s ALTER COLUMN id RESTART WITH %d",
+                        table.getKey(), table.getValue() + 1));
+            }
+            connection.commit();
+            if (postgres) {
+                connection.setAutoCommit(true);
+                statement.execute("ANALYZE");
+            }
+        }
+        log.info("Набор загружен за {} с: {}", (System.nanoTime() - started) / 1_000_000_000, counts);
+        return counts;
+    }
+
+    private static void migrate(String url, String user, String password) throws SQLException {
+        String vendor;
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            vendor = isPostgres(connection) ? "postgresql" : "h2";
+        }
+        // те же миграции и настройки, что spring.flyway.* сервера
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration/common", "classpath:db/migration/" + vendor)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    private static void prepareTables(Connection connection, boolean postgres, boolean truncate) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (truncate) {
+                if (postgres) {
+                    statement.execute("TRUNCATE " + String.join(", ", TABLES));
+                } else {
+                    for (int i = TABLES.size() - 1; i >= 0; i--) {
+                        statement.execute("DELETE FROM " + TABLES.get(i));
+                    }
+                }
+                connection.commit();
+                return;
+            }
+            for (String table : TABLES) {
+                try (ResultSet rows = statement.executeQuery("SELECT count(*) FROM " + table)) {
+                    rows.next();
+                    if (rows.getLong(1) > 0) {
+                        throw new IllegalStateException(String.format("Таблица %s не пуста: запустите с --truncate",
+                                table));
+                    }
+                }
+            }
+        }
+    }
+
+    private static long timed(String table, Load load) throws SQLException {
+        long started = System.nanoTime();
+        long count = load.run();
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("{}: {} строк за {} мс ({} строк/с)", table, count, millis, count * 1000 / millis);
+        return count;
+    }
+
+    private static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Ожидался параметр вида --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Не задан --" + name);
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Load {
+        long run() throws SQLException;
+    }
+}
@@ -0,0 +1,219 @@
+package ru.practicum.shareit.bench.data;
+
+import ru.practicum.shareit.bench.data.TableLoader.RowWriter;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Строки набора данных. Генератор случайных чисел свой у каждой строки (у бронирований - у каждой вещи)
+ * и зависит только от seed, таблицы и id, поэтому строки не зависят от порядка записи. Id назначаются подряд с 1,
+ * внешние ключи вычисляются без чтения из базы.
+ * <p>
+ * Распределения:
+ * <ul>
+ *     <li>вещи есть у каждого пятого пользователя, у первых владельцев их больше;</li>
+ *     <li>число бронирований на вещь - логнормальное: немного популярных вещей и длинный хвост;</li>
+ *     <li>бронирования одной вещи идут по очереди без пересечений (как требует ex_bookings_item_period)
+ *     в окне [anchor - pastDays, anchor + futureDays], длительность - от часа до двух недель;</li>
+ *     <li>статус зависит от времени: прошлые в основном APPROVED, будущие - WAITING или APPROVED,
+ *     текущие - APPROVED;</li>
+ *     <li>комментарии оставляют букеры завершённых подтверждённых бронирований, после их окончания.</li>
+ * </ul>
+ */
+public class Dataset {
+    private static final long REQUESTS = 2;
+    private static final long ITEMS = 3;
+    private static final long ITEM_WEIGHTS = 4;
+    private static final long BOOKINGS = 5;
+    private static final long COMMENTS = 6;
+    private static final long OWNERS = 7;
+
+    private static final int OWNER_SHARE = 5;
+    private static final double WEIGHT_SIGMA = 1.0;
+    private static final long MINUTES_IN_DAY = 24 * 60;
+    private static final int[] DURATION_HOURS = {1, 3, 24, 48, 72, 168, 336};
+
+    private static final String[] NOUNS = {"дрель", "перфоратор", "шуруповёрт", "лобзик", "болгарка", "стремянка",
+            "палатка", "спальник", "велосипед", "самокат", "сноуборд", "лыжи", "байдарка", "мангал", "термос",
+            "проектор", "фотоаппарат", "штатив", "колонка", "пылесос", "парогенератор", "мойка", "газонокосилка",
+            "культиватор", "бетономешалка", "тележка", "коляска", "автокресло", "чемодан", "рюкзак"};
+    private static final String[] ADJECTIVES = {"новый", "старый", "компактный", "мощный", "лёгкий", "складной",
+            "профессиональный", "детский", "туристический", "садовый", "аккумуляторный", "электрический",
+            "ручной", "большой", "маленький"};
+    private static final String[] DETAILS = {"в хорошем состоянии", "с чехлом", "с набором насадок",
+            "почти не использовался", "с зарядкой", "есть инструкция", "самовывоз", "аккуратно",
+            "после ремонта", "для дачи", "для города", "для похода"};
+    private static final String[] REVIEWS = {"Всё отлично", "Работает как надо", "Спасибо, пригодилось",
+            "Немного поцарапан", "Рекомендую", "Быстро договорились", "Пришлось подождать", "Как в описании"};
+
+    private final Scale scale;
+    private final int owners;
+    private final long windowStart;
+    private final long windowMinutes;
+    private final double totalWeight;
+    private final long remainder;
+
+    public Dataset(Scale scale) {
+        scale.validate();
+        this.scale = scale;
+        this.owners = Math.max(1, scale.getUsers() / OWNER_SHARE);
+        this.windowStart = -scale.getPastDays() * MINUTES_IN_DAY;
+        this.windowMinutes = (long) (scale.getPastDays() + scale.getFutureDays()) * MINUTES_IN_DAY;
+        double sum = 0;
+        for (long item = 1; item <= scale.getItems(); item++) {
+            sum += weight(item);
+        }
+        this.totalWeight = sum;
+        long assigned = 0;
+        long busiest = 0;
+        for (long item = 1; item <= scale.getItems(); item++) {
+            long count = baseBookingsOf(item);
+            assigned += count;
+            busiest = Math.max(busiest, count + 1);
+        }
+        this.remainder = scale.getBookings() - assigned;
+        // на бронирование нужно хотя бы две минуты окна: начало в первой половине слота, конец - до следующего
+        if (busiest * 2 > windowMinutes) {
+            throw new IllegalArgumentException(String.format("%d бронирований одной вещи не помещаются в окно "
+                    + "из %d минут: нужно больше вещей или шире окно", busiest, windowMinutes));
+        }
+    }
+
+    public long writeUsers(RowWriter writer) throws SQLException {
+        for (long id = 1; id <= scale.getUsers(); id++) {
+            writer.write(id, "User " + id, "user" + id + "@shareit.test");
+        }
+        return writer.finish();
+    }
+
+    public long writeRequests(RowWriter writer) throws SQLException {
+        for (long id = 1; id <= scale.getRequests(); id++) {
+            SplittableRandom random = random(REQUESTS, id);
+            writer.write(id,
+                    "Нужен " + pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + ", " + pick(random, DETAILS),
+                    1 + (long) random.nextInt(scale.getUsers()),
+                    at(-random.nextLong(scale.getPastDays() * MINUTES_IN_DAY)));
+        }
+        return writer.finish();
+    }
+
+    public long writeItems(RowWriter writer) throws SQLException {
+        for (long id = 1; id <= scale.getItems(); id++) {
+            SplittableRandom random = random(ITEMS, id);
+            String noun = pick(random, NOUNS);
+            String name = pick(random, ADJECTIVES) + " " + noun;
+            Long requestId = scale.getRequests() > 0 && random.nextInt(10) == 0
+                    ? 1 + (long) random.nextInt(scale.getRequests())
+                    : null;
+            writer.write(id,
+                    Character.toUpperCase(name.charAt(0)) + name.substring(1),
+                    noun + " " + pick(random, DETAILS) + ", " + pick(random, DETAILS),
+                    random.nextInt(10) != 0,
+                    ownerOf(id),
+                    requestId);
+        }
+        return writer.finish();
+    }
+
+    public long writeBookings(RowWriter writer) throws SQLException {
+        forEachBooking((id, item, booker, start, end, status) ->
+                writer.write(id, at(start), at(end), item, booker, status.name(), ownerOf(item)));
+        return writer.finish();
+    }
+
+    // второй проход по тем же бронированиям: COPY в две таблицы сразу в одном соединении не открыть
+    public long writeComments(RowWriter writer) throws SQLException {
+        long[] id = {0};
+        forEachBooking((bookingId, item, booker, start, end, status) -> {
+            if (status != BookingStatus.APPROVED || end >= 0) {
+                return;
+            }
+            SplittableRandom comment = random(COMMENTS, bookingId);
+            if (comment.nextDouble() >= scale.getCommentShare()) {
+                return;
+            }
+            long created = Math.min(-1, end + comment.nextLong(3 * MINUTES_IN_DAY));
+            writer.write(++id[0], pick(comment, REVIEWS), item, booker, at(created));
+        });
+        return writer.finish();
+    }
+
+    private void forEachBooking(BookingConsumer consumer) throws SQLException {
+        long id = 0;
+        for (long item = 1; item <= scale.getItems(); item++) {
+            long count = bookingsOf(item);
+            if (count == 0) {
+                continue;
+            }
+            SplittableRandom random = random(BOOKINGS, item);
+            long owner = ownerOf(item);
+            long slot = windowMinutes / count;
+            for (long i = 0; i < count; i++) {
+                long slotStart = windowStart + i * slot;
+                long start = slotStart + random.nextLong(slot / 2);
+                long duration = DURATION_HOURS[random.nextInt(DURATION_HOURS.length)] * 60L;
+                long end = Math.min(start + duration, slotStart + slot);
+                long booker = 1 + random.nextInt(scale.getUsers() - 1);
+                if (booker >= owner) {
+                    booker++;
+                }
+                consumer.accept(++id, item, booker, start, end, status(random, start, end));
+            }
+        }
+    }
+
+    private BookingStatus status(SplittableRandom random, long start, long end) {
+        int roll = random.nextInt(100);
+        if (end < 0) {
+            return roll < 85 ? BookingStatus.APPROVED : roll < 95 ? BookingStatus.REJECTED : BookingStatus.CANCELED;
+        }
+        if (start > 0) {
+            return roll < 35 ? BookingStatus.WAITING
+                    : roll < 90 ? BookingStatus.APPROVED
+                    : roll < 97 ? BookingStatus.REJECTED : BookingStatus.CANCELED;
+        }
+        return BookingStatus.APPROVED;
+    }
+
+    // доли логнормального веса округляются вниз, остаток раздаётся по одному первым вещам
+    long bookingsOf(long item) {
+        return baseBookingsOf(item) + (item <= remainder ? 1 : 0);
+    }
+
+    private long baseBookingsOf(long item) {
+        return (long) (scale.getBookings() * weight(item) / totalWeight);
+    }
+
+    private double weight(long item) {
+        SplittableRandom random = random(ITEM_WEIGHTS, item);
+        // Бокс - Мюллер: у SplittableRandom нет nextGaussian
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        return Math.exp(WEIGHT_SIGMA * gaussian);
+    }
+
+    // у владельцев с меньшими id вещей больше
+    private long ownerOf(long item) {
+        double u = random(OWNERS, item).nextDouble();
+        return 1 + (long) (owners * u * u);
+    }
+
+    private LocalDateTime at(long minutesFromAnchor) {
+        return scale.getAnchor().plusMinutes(minutesFromAnchor);
+    }
+
+    private SplittableRandom random(long table, long id) {
+        return new SplittableRandom(scale.getSeed() * 1_000_003L + table * 0x9E3779B97F4A7C15L + id);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    @FunctionalInterface
+    private interface BookingConsumer {
+        void accept(long id, long item, long booker, long start, long end, BookingStatus status) throws SQLException;
+    }
+}
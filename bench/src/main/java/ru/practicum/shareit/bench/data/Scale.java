@@ -0,0 +1,49 @@
+package ru.practicum.shareit.bench.data;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Размер набора данных и seed. Одинаковые seed, размеры и anchor дают одни и те же строки - с теми же id,
+ * текстами и датами, - поэтому прогоны нагрузки на разных машинах и в разные дни сравнимы.
+ */
+@Value
+@Builder
+public class Scale {
+    @Builder.Default
+    long seed = 42;
+    @Builder.Default
+    int users = 10_000;
+    @Builder.Default
+    int items = 25_000;
+    @Builder.Default
+    int requests = 5_000;
+    @Builder.Default
+    long bookings = 500_000;
+    // доля завершённых подтверждённых бронирований, после которых букер оставил комментарий
+    @Builder.Default
+    double commentShare = 0.1;
+    // "сейчас" для набора: от него отсчитываются прошлые, текущие и будущие бронирования
+    LocalDateTime anchor;
+    @Builder.Default
+    int pastDays = 730;
+    @Builder.Default
+    int futureDays = 180;
+
+    public void validate() {
+        if (users < 2 || items < 1 || requests < 0 || bookings < 0) {
+            throw new IllegalArgumentException("Нужно хотя бы 2 пользователя и 1 вещь, остальные размеры не меньше 0");
+        }
+        if (pastDays < 1 || futureDays < 0) {
+            throw new IllegalArgumentException("pastDays должен быть больше 0, futureDays - не меньше 0");
+        }
+        if (commentShare < 0 || commentShare > 1) {
+            throw new IllegalArgumentException("commentShare должен быть от 0 до 1");
+        }
+        if (anchor == null) {
+            throw new IllegalArgumentException("Не задан anchor");
+        }
+    }
+}
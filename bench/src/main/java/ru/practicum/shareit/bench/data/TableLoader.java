@@ -0,0 +1,17 @@
+package ru.practicum.shareit.bench.data;
+
+import java.sql.SQLException;
+
+/**
+ * Потоковая запись строк в таблицу: строки не копятся в памяти, сколько бы их ни было.
+ */
+public interface TableLoader {
+    RowWriter open(String table, String... columns) throws SQLException;
+
+    interface RowWriter {
+        void write(Object... values) throws SQLException;
+
+        // дописывает остаток и возвращает число строк
+        long finish() throws SQLException;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.bench.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Генератор на H2: один seed - одни и те же строки, заданные размеры соблюдены, и данные не нарушают правил
+ * сервера (владелец в бронировании, непересекающиеся бронирования вещи, комментарии только после бронирования).
+ */
+class DataGeneratorTest {
+    private static final String[] SCALE = {"--users=50", "--items=100", "--requests=20", "--bookings=5000",
+            "--comment-share=0.3", "--anchor=2024-03-01"};
+
+    @Test
+    void main_whenSameSeed_thenSameRows() throws SQLException {
+        generate("same1", "--seed=7");
+        generate("same2", "--seed=7");
+        generate("other", "--seed=8");
+
+        for (String table : new String[]{"users", "requests", "items", "bookings", "comments"}) {
+            assertEquals(dump("same1", table), dump("same2", table), table);
+        }
+        assertNotEquals(dump("same1", "bookings"), dump("other", "bookings"));
+    }
+
+    @Test
+    void main_whenGenerated_thenScaleAndServerRulesHold() throws SQLException {
+        generate("rules", "--seed=42");
+
+        assertEquals(50, count("rules", "select count(*) from users"));
+        assertEquals(100, count("rules", "select count(*) from items"));
+        assertEquals(20, count("rules", "select count(*) from requests"));
+        assertEquals(5000, count("rules", "select count(*) from bookings"));
+        assertTrue(count("rules", "select count(*) from comments") > 0);
+        assertTrue(count("rules", "select count(distinct status) from bookings") == 4);
+        assertEquals(0, count("rules", "select count(*) from bookings b join items i on i.id = b.item_id "
+                + "where b.owner_id <> i.owner_id or b.booker_id = i.owner_id or b.start_date >= b.end_date"));
+        assertEquals(0, count("rules", "select count(*) from bookings a join bookings b on a.item_id = b.item_id "
+                + "and a.id < b.id and a.start_date < b.end_date and b.start_date < a.end_date"));
+        assertEquals(0, count("rules", "select count(*) from comments c where not exists (select 1 from bookings b "
+                + "where b.item_id = c.item_id and b.booker_id = c.author_id and b.status = 'APPROVED' "
+                + "and b.end_date <= c.created_date)"));
+    }
+
+    @Test
+    void main_whenTablesNotEmpty_thenTruncateRequired() throws SQLException {
+        generate("reload", "--seed=1");
+
+        assertThrows(IllegalStateException.class, () -> generate("reload", "--seed=1"));
+        generate("reload", "--seed=1", "--truncate");
+        assertEquals(5000, count("reload", "select count(*) from bookings"));
+        // после загрузки identity продолжается с max(id) + 1
+        try (Connection connection = connect("reload"); Statement statement = connection.createStatement()) {
+            statement.execute("insert into users (name, email) values ('New', 'new@mail.ru')");
+        }
+        assertEquals(51, count("reload", "select id from users where email = 'new@mail.ru'"));
+    }
+
+    private static void generate(String database, String... options) throws SQLException {
+        List<String> args = new ArrayList<>(List.of(SCALE));
+        args.add("--url=" + url(database));
+        args.add("--user=test");
+        args.add("--password=test");
+        args.addAll(List.of(options));
+        DataGenerator.main(args.toArray(new String[0]));
+    }
+
+    private static List<String> dump(String database, String table) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = connect(database);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select * from " + table + " order by id")) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    // last_modified - время загрузки, оно от seed не зависит
+                    if (!"LAST_MODIFIED".equalsIgnoreCase(resultSet.getMetaData().getColumnName(i))) {
+                        row.append(resultSet.getString(i)).append('|');
+                    }
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private static long count(String database, String sql) throws SQLException {
+        try (Connection connection = connect(database);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static Connection connect(String database) throws SQLException {
+        return DriverManager.getConnection(url(database), "test", "test");
+    }
+
+    private static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+}
@@ -1,63 +1,114 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    // подтверждение меняет последнее/следующее бронирование в карточке вещи для владельца
+    private static final String ITEMS_PREFIX = "/items/";
+
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransport transport, ServerResponseCache cache, MeterRegistry registry,
+                         ObjectMapper objectMapper) {
+        super(transport, cache, registry, API_PREFIX);
+        this.objectMapper = objectMapper;
     }
 
-    public ResponseEntity<Object> bookItem(long userId, BookingDtoRequest requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookingDtoRequest requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size, String cursor) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return getPage("?state={state}&from={from}&size={size}", userId, parameters, cursor);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingsByOwner(long userId, BookingState state, Integer from, Integer size, String cursor) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return getPage("/owner?state={state}&from={from}&size={size}", userId, parameters, cursor);
+    }
+
+    public Mono<ResponseEntity<Object>> approveBooking(long userId, Boolean approved, long bookingId) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+
+        return invalidatingByResponse(patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                response -> itemPaths(response, booking -> booking.path("item").path("id")), ITEMS_PREFIX);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId, Boolean approved, long bookingId) {
+    public Mono<ResponseEntity<Object>> approveBookings(long userId, Boolean approved, BookingApprovalRequest request) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
 
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return invalidatingByResponse(patch("?approved={approved}", userId, parameters, request),
+                response -> itemPaths(response, result -> result.path("itemId")), ITEMS_PREFIX);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
+
+    public void exportBookings(long userId, HttpServletResponse response) throws IOException {
+        stream("/export", userId, response);
+    }
+
+    public void exportBookingsByOwner(long userId, HttpServletResponse response) throws IOException {
+        stream("/owner/export", userId, response);
+    }
+
+    // карточки вещей из ответа: одно бронирование или результаты пакета, где itemId есть только у изменённых;
+    // null, если тело не разобрать - тогда сбрасываются все карточки
+    @Nullable
+    private Set<String> itemPaths(ResponseEntity<Object> response, Function<JsonNode, JsonNode> itemId) {
+        if (!(response.getBody() instanceof byte[])) {
+            return null;
+        }
+        try {
+            JsonNode body = objectMapper.readTree((byte[]) response.getBody());
+            Set<String> paths = new HashSet<>();
+            for (JsonNode node : body.isArray() ? body : List.of(body)) {
+                JsonNode id = itemId.apply(node);
+                if (id.isIntegralNumber()) {
+                    paths.add(ITEMS_PREFIX + id.asLong());
+                }
+            }
+            return paths;
+        } catch (IOException e) {
+            return null;
+        }
+    }
 }
@@ -7,14 +7,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.constant.Constant;
 import ru.practicum.shareit.exception.BookingStatusException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -25,46 +29,71 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader(Constant.USER_ID) long userId,
-                                           @RequestBody @Valid BookingDtoRequest requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader(Constant.USER_ID) long userId,
+                                                 @RequestBody @Valid BookingDtoRequest requestDto) {
         log.info("Запрос на бронирование {} пользователем {}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approvedBooking(@RequestHeader(Constant.USER_ID) long userId,
-                                                  @PathVariable long bookingId,
-                                                  @RequestParam Boolean approved) {
+    public Mono<ResponseEntity<Object>> approvedBooking(@RequestHeader(Constant.USER_ID) long userId,
+                                                        @PathVariable long bookingId,
+                                                        @RequestParam Boolean approved) {
         log.info("Запрос владельцем {} на изменение статуса {} для бронирования {}", userId, approved, bookingId);
         return bookingClient.approveBooking(userId, approved, bookingId);
     }
 
+    @PatchMapping
+    public Mono<ResponseEntity<Object>> approveBookings(@RequestHeader(Constant.USER_ID) long userId,
+                                                        @RequestParam Boolean approved,
+                                                        @RequestBody @Valid BookingApprovalRequest request) {
+        log.info("Запрос владельцем {} на изменение статуса {} для бронирований {}", userId, approved, request.getBookingIds());
+        return bookingClient.approveBookings(userId, approved, request);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(Constant.USER_ID) long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(Constant.USER_ID) long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Запрос от пользователя {} на просмотр бронирования {}", userId, bookingId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader(Constant.USER_ID) long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "5") Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader(Constant.USER_ID) long userId,
+                                                    @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "5") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new BookingStatusException("Unknown state: " + stateParam));
         log.info("Запрос на бронирования со статусом {} от пользователя {}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(Constant.USER_ID) long userId,
+    public Mono<ResponseEntity<Object>> getBookingsByOwner(@RequestHeader(Constant.USER_ID) long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "5") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "5") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new BookingStatusException("Unknown state: " + stateParam));
         log.info("Запрос на бронирования со статусом {} от пользователя {}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsByOwner(userId, state, from, size);
+        return bookingClient.getBookingsByOwner(userId, state, from, size, cursor);
+    }
+
+    // NDJSON со всей историей бронирований; ответ сервера передаётся клиенту потоком, без буферизации
+    @GetMapping("/export")
+    public void exportBookings(@RequestHeader(Constant.USER_ID) long userId,
+                               HttpServletResponse response) throws IOException {
+        log.info("Запрос от пользователя {} на выгрузку всех его бронирований", userId);
+        bookingClient.exportBookings(userId, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByOwner(@RequestHeader(Constant.USER_ID) long userId,
+                                      HttpServletResponse response) throws IOException {
+        log.info("Запрос от владельца {} на выгрузку всех бронирований его вещей", userId);
+        bookingClient.exportBookingsByOwner(userId, response);
     }
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@SuperBuilder
+public class BookingApprovalRequest {
+    public static final int MAX_BOOKINGS = 100;
+
+    @NotEmpty(message = "Не указаны бронирования")
+    @Size(max = MAX_BOOKINGS, message = "Нельзя изменить больше " + MAX_BOOKINGS + " бронирований за раз")
+    private List<@NotNull(message = "Не указан id бронирования") Long> bookingIds;
+}
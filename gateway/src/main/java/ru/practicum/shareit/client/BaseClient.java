@@ -1,99 +1,226 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
-import org.springframework.http.HttpEntity;
+import javax.servlet.http.HttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.metrics.http.Outcome;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.constant.Constant;
 
+/**
+ * Запросы gateway к серверу. Каждый запрос, дошедший до сервера, попадает в таймер shareit.gateway.server.requests
+ * с тегами method, uri, status и outcome; в uri числовые сегменты пути заменены на {id}, параметры отброшены.
+ * Ответы из кэша gateway сервера не касаются и в таймер не попадают, перепроверка с If-None-Match - попадает.
+ */
 public class BaseClient {
-    protected final RestTemplate rest;
+    static final String TIMER = "shareit.gateway.server.requests";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    protected final ServerTransport transport;
+    private final ServerResponseCache cache;
+    private final MeterRegistry registry;
+    private final String apiPrefix;
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    public BaseClient(ServerTransport transport, ServerResponseCache cache, MeterRegistry registry, String apiPrefix) {
+        this.transport = transport;
+        this.cache = cache;
+        this.registry = registry;
+        this.apiPrefix = apiPrefix;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    // ответ может прийти из кэша gateway, см. ServerResponseCache
+    protected Mono<ResponseEntity<Object>> getCached(String path, @Nullable Long userId) {
+        String fullPath = apiPrefix + path;
+        return cache.get(fullPath, userId, defaultHeaders(userId),
+                headers -> timed(HttpMethod.GET, fullPath,
+                        () -> transport.exchange(HttpMethod.GET, fullPath, headers, Map.of(), null)));
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    // необязательный курсор страницы передаётся на сервер как есть
+    protected Mono<ResponseEntity<Object>> getPage(String path, long userId, Map<String, Object> parameters,
+                                                   @Nullable String cursor) {
+        if (cursor == null) {
+            return get(path, userId, parameters);
+        }
+        Map<String, Object> pageParameters = new HashMap<>(parameters);
+        pageParameters.put("cursor", cursor);
+        return get(path + "&cursor={cursor}", userId, pageParameters);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    // выгрузки не кэшируются и не собираются в памяти gateway - тело идёт клиенту по мере чтения от сервера
+    protected void stream(String path, long userId, HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        Timer.Sample sample = Timer.start(registry);
+        HttpStatus status = null;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            transport.stream(apiPrefix + path, headers, response);
+            status = HttpStatus.resolve(response.getStatus());
+        } finally {
+            sample.stop(timer(HttpMethod.GET, apiPrefix + path, status));
+        }
+    }
+
+    protected Mono<ResponseEntity<Object>> invalidating(Mono<ResponseEntity<Object>> request, String... paths) {
+        return invalidating(request, () -> {
+            for (String path : paths) {
+                cache.invalidate(path);
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        });
+    }
+
+    // изменение видно не только по своему пути, но и во всех ответах с префиксом
+    protected Mono<ResponseEntity<Object>> invalidatingWithPrefix(Mono<ResponseEntity<Object>> request,
+                                                                  String path, String prefix) {
+        return invalidating(request, () -> {
+            cache.invalidate(path);
+            cache.invalidatePrefix(prefix);
+        });
+    }
+
+    // затронутые пути известны только из ответа сервера: при 2xx сбрасываются они, при 4xx изменений не было;
+    // если ответа нет, он 5xx или пути не удалось прочитать (null) - сбрасывается весь fallbackPrefix
+    protected Mono<ResponseEntity<Object>> invalidatingByResponse(
+            Mono<ResponseEntity<Object>> request,
+            Function<ResponseEntity<Object>, Collection<String>> paths,
+            String fallbackPrefix) {
+        Runnable fallback = () -> cache.invalidatePrefix(fallbackPrefix);
+        return request
+                .doOnSuccess(response -> {
+                    if (response == null || response.getStatusCode().is5xxServerError()) {
+                        fallback.run();
+                    } else if (response.getStatusCode().is2xxSuccessful()) {
+                        Collection<String> changed = paths.apply(response);
+                        if (changed == null) {
+                            fallback.run();
+                        } else {
+                            changed.forEach(cache::invalidate);
+                        }
+                    }
+                })
+                .doOnError(e -> fallback.run())
+                .doOnCancel(fallback);
+    }
+
+    // кэш сбрасывается до того, как ответ уйдёт клиенту, и на ошибку тоже: изменение могло успеть примениться
+    private static Mono<ResponseEntity<Object>> invalidating(Mono<ResponseEntity<Object>> request, Runnable invalidate) {
+        return request
+                .doOnSuccess(response -> invalidate.run())
+                .doOnError(e -> invalidate.run())
+                .doOnCancel(invalidate);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        String fullPath = apiPrefix + path;
+        return timed(method, fullPath, () -> transport.exchange(method, fullPath, defaultHeaders(userId),
+                parameters != null ? parameters : Map.of(), body));
+    }
+
+    // RestTemplateTransport выполняет запрос ещё до возврата Mono, поэтому отсчёт начинается до exchange
+    private Mono<ResponseEntity<Object>> timed(HttpMethod method, String path,
+                                               Supplier<Mono<ResponseEntity<Object>>> exchange) {
+        Timer.Sample sample = Timer.start(registry);
+        Mono<ResponseEntity<Object>> response;
+        try {
+            response = exchange.get();
+        } catch (RuntimeException ex) {
+            sample.stop(timer(method, path, null));
+            throw ex;
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return response
+                .doOnSuccess(r -> sample.stop(timer(method, path, r != null ? r.getStatusCode() : null)))
+                .doOnError(e -> sample.stop(timer(method, path, null)));
+    }
+
+    // status == null - ответа от сервера нет: соединение не установлено, оборвалось или истёк таймаут
+    private Timer timer(HttpMethod method, String path, @Nullable HttpStatus status) {
+        return Timer.builder(TIMER)
+                .tag("method", method.name())
+                .tag("uri", uriTemplate(path))
+                .tag("status", status != null ? String.valueOf(status.value()) : "IO_ERROR")
+                .tag("outcome", status != null ? Outcome.forStatus(status.value()).name() : Outcome.UNKNOWN.name())
+                .register(registry);
+    }
+
+    static String uriTemplate(String path) {
+        int query = path.indexOf('?');
+        return ID_SEGMENT.matcher(query < 0 ? path : path.substring(0, query)).replaceAll("/{id}");
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,18 +232,4 @@ public class BaseClient {
         }
         return headers;
     }
-
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
-
-        return responseBuilder.build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки пула соединений gateway -> shareit-server (свойства shareit-server.http.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    // все клиенты ходят на один хост, так что лимит на маршрут - фактически лимит на весь сервер
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // сколько запрос ждёт свободного соединения из пула, прежде чем упасть
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    private Duration socketTimeout = Duration.ofSeconds(30);
+    // если сервер не прислал Keep-Alive, соединение держится столько
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    // предел тела ответа, которое транспорт webclient держит в памяти целиком
+    private DataSize maxResponseSize = DataSize.ofMegabytes(16);
+}
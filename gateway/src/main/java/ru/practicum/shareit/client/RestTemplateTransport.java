@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Блокирующий транспорт (по умолчанию): поток Tomcat ждёт ответа сервера.
+ * Mono здесь уже готовый - запрос выполнен до возврата из exchange.
+ * Тело ответа читается байтами и отдаётся клиенту без разбора в Map и повторной сериализации.
+ */
+@Component
+@ConditionalOnProperty(name = ServerTransport.PROPERTY, havingValue = "resttemplate", matchIfMissing = true)
+public class RestTemplateTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    @Autowired
+    public RestTemplateTransport(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                                 ClientHttpRequestFactory requestFactory) {
+        this.rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(() -> requestFactory)
+                .build();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                 Map<String, Object> parameters, @Nullable Object body) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+        } catch (HttpStatusCodeException e) {
+            return Mono.just(ServerResponses.passThrough(e.getStatusCode(), e.getResponseHeaders(),
+                    e.getResponseBodyAsByteArray()));
+        }
+        return Mono.just(ServerResponses.passThrough(shareitServerResponse.getStatusCode(),
+                shareitServerResponse.getHeaders(), shareitServerResponse.getBody()));
+    }
+
+    // тело читается из соединения по мере прихода; ошибка сервера короткая и приходит целиком в исключении
+    @Override
+    public void stream(String path, HttpHeaders headers, HttpServletResponse response) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> request.getHeaders().addAll(headers), serverResponse -> {
+                ServerResponses.writeHead(serverResponse.getStatusCode(), serverResponse.getHeaders(), response);
+                ServerResponses.copy(serverResponse.getBody(), response.getOutputStream());
+                return null;
+            }, Map.of());
+        } catch (HttpStatusCodeException e) {
+            ServerResponses.writeHead(e.getStatusCode(), e.getResponseHeaders(), response);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Кэш ответов сервера на GET по ключу "путь + X-Sharer-User-Id": владелец вещи видит в ней бронирования,
+ * остальные пользователи - нет, поэтому общий на всех ответ кэшировать нельзя.
+ * Свежий ответ (shareit-server.cache.fresh-for) отдаётся без обращения к серверу, устаревший перепроверяется
+ * запросом с If-None-Match: на 304 клиент получает сохранённое тело. Ответ с Cache-Control: no-cache
+ * (карточка вещи владельца - её бронирования сдвигаются со временем) перепроверяется при каждом чтении.
+ * Изменения, прошедшие через этот gateway, сбрасывают записи пути у всех пользователей;
+ * изменения в обход него видны не позже чем через fresh-for.
+ * В actuator/metrics: cache.* с тегом cache=shareit-server.responses, shareit.gateway.cache.weight
+ * и shareit.gateway.cache.revalidations.
+ */
+@Component
+@EnableConfigurationProperties(ServerResponseCacheProperties.class)
+public class ServerResponseCache implements MeterBinder {
+    static final String CACHE_NAME = "shareit-server.responses";
+    // ключ, ссылки и служебные поля записи - приблизительно
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final boolean enabled;
+    private final long freshForNanos;
+    private final Ticker ticker;
+    private final Cache<CacheKey, CachedResponse> cache;
+    // меняется при каждой инвалидации: ответ, запрошенный до неё, в кэш уже не попадает
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong modified = new AtomicLong();
+
+    @Autowired
+    public ServerResponseCache(ServerResponseCacheProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    ServerResponseCache(ServerResponseCacheProperties properties, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.freshForNanos = properties.getFreshFor().toNanos();
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((CacheKey key, CachedResponse response) -> response.weight(key))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Ответ на GET из кэша или от сервера; exchange получает заголовки запроса,
+     * к которым при перепроверке добавлен If-None-Match.
+     */
+    public Mono<ResponseEntity<Object>> get(String path, @Nullable Long userId, HttpHeaders headers,
+                                            Function<HttpHeaders, Mono<ResponseEntity<Object>>> exchange) {
+        if (!enabled) {
+            return exchange.apply(headers);
+        }
+        CacheKey key = new CacheKey(path, userId);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && !cached.mustRevalidate() && ticker.read() - cached.getStoredAt() < freshForNanos) {
+            return Mono.just(cached.toResponse());
+        }
+        HttpHeaders requestHeaders = headers;
+        if (cached != null && cached.getEtag() != null) {
+            requestHeaders = new HttpHeaders();
+            requestHeaders.addAll(headers);
+            requestHeaders.setIfNoneMatch(cached.getEtag());
+        }
+        long requestedAt = generation.get();
+        return exchange.apply(requestHeaders)
+                .map(response -> {
+                    if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        notModified.incrementAndGet();
+                        store(key, cached.refreshed(ticker.read()), requestedAt);
+                        return cached.toResponse();
+                    }
+                    if (cached != null && cached.getEtag() != null) {
+                        modified.incrementAndGet();
+                    }
+                    if (response.getStatusCode() == HttpStatus.OK && response.getBody() instanceof byte[]) {
+                        store(key, new CachedResponse(response.getStatusCode(), response.getHeaders(),
+                                (byte[]) response.getBody(), response.getHeaders().getETag(), ticker.read()),
+                                requestedAt);
+                    } else {
+                        cache.invalidate(key);
+                    }
+                    return response;
+                });
+    }
+
+    // записи пути у всех пользователей
+    public void invalidate(String path) {
+        invalidateIf(key -> key.getPath().equals(path));
+    }
+
+    public void invalidatePrefix(String prefix) {
+        invalidateIf(key -> key.getPath().startsWith(prefix));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder("shareit.gateway.cache.weight", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .description("Приблизительный объём ответов в кэше gateway")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("shareit.gateway.cache.revalidations", notModified, AtomicLong::get)
+                .tag("result", "not_modified")
+                .register(registry);
+        FunctionCounter.builder("shareit.gateway.cache.revalidations", modified, AtomicLong::get)
+                .tag("result", "modified")
+                .register(registry);
+    }
+
+    // вытеснение в Caffeine идёт асинхронно
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private void store(CacheKey key, CachedResponse response, long requestedAt) {
+        if (generation.get() != requestedAt) {
+            return;
+        }
+        cache.put(key, response);
+        // инвалидация могла пройти между проверкой и записью
+        if (generation.get() != requestedAt) {
+            cache.asMap().remove(key, response);
+        }
+    }
+
+    private void invalidateIf(Predicate<CacheKey> predicate) {
+        generation.incrementAndGet();
+        // перебор ключей: изменения заметно реже чтений, а размер кэша ограничен
+        cache.asMap().keySet().removeIf(predicate);
+    }
+
+    @Value
+    static class CacheKey {
+        String path;
+        Long userId;
+    }
+
+    @Value
+    static class CachedResponse {
+        HttpStatus status;
+        HttpHeaders headers;
+        byte[] body;
+        String etag;
+        long storedAt;
+
+        CachedResponse refreshed(long now) {
+            return new CachedResponse(status, headers, body, etag, now);
+        }
+
+        boolean mustRevalidate() {
+            String cacheControl = headers.getCacheControl();
+            return cacheControl != null && cacheControl.contains("no-cache");
+        }
+
+        ResponseEntity<Object> toResponse() {
+            return ResponseEntity.status(status).headers(headers).body(body);
+        }
+
+        int weight(CacheKey key) {
+            long headerChars = headers.entrySet().stream()
+                    .mapToLong(h -> h.getKey().length() + h.getValue().stream().mapToLong(String::length).sum())
+                    .sum();
+            long weight = ENTRY_OVERHEAD + body.length + 2 * (headerChars + key.getPath().length());
+            return (int) Math.min(Integer.MAX_VALUE, weight);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов сервера в gateway (свойства shareit-server.cache.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ServerResponseCacheProperties {
+    private boolean enabled = true;
+    // суммарный размер тел и заголовков в кэше
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+    // столько ответ отдаётся без обращения к серверу, дальше - проверка по If-None-Match
+    private Duration freshFor = Duration.ofSeconds(5);
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
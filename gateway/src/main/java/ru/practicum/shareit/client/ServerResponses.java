@@ -0,0 +1,61 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Ответ сервера в том виде, в котором его получает клиент gateway: статус, заголовки и тело байтами.
+ * JSON не разбирается и не сериализуется заново - ByteArrayHttpMessageConverter пишет байты как есть
+ * с Content-Type сервера.
+ */
+final class ServerResponses {
+    // заголовки соединения gateway -> server, к соединению клиент -> gateway они не относятся
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH);
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    private ServerResponses() {
+    }
+
+    static ResponseEntity<Object> passThrough(HttpStatus status, @Nullable HttpHeaders serverHeaders,
+                                              @Nullable byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            headers.addAll(serverHeaders);
+            HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        }
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .body(body);
+    }
+
+    // для потоковой передачи: статус и заголовки сервера пишутся прямо в ответ клиенту до первого байта тела
+    static void writeHead(HttpStatus status, @Nullable HttpHeaders serverHeaders, HttpServletResponse response) {
+        response.setStatus(status.value());
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    values.forEach(value -> response.addHeader(name, value));
+                }
+            });
+        }
+    }
+
+    // каждый прочитанный кусок сразу уходит клиенту, в памяти gateway не больше одного буфера
+    static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+}
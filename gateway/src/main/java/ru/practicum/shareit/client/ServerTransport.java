@@ -0,0 +1,27 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Способ доставки запроса gateway на shareit-server; выбирается свойством shareit-server.transport.
+ * Ответ сервера, в том числе с ошибкой, возвращается клиенту с тем же статусом и телом.
+ */
+public interface ServerTransport {
+    String PROPERTY = "shareit-server.transport";
+
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                          Map<String, Object> parameters, @Nullable Object body);
+
+    /**
+     * GET с ответом, который пишется клиенту по мере получения от сервера: статус и заголовки, затем тело кусками.
+     */
+    void stream(String path, HttpHeaders headers, HttpServletResponse response) throws IOException;
+}
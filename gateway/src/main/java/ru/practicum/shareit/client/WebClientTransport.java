@@ -0,0 +1,104 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Неблокирующий транспорт на WebClient/Reactor Netty (shareit-server.transport=webclient).
+ * Поток Tomcat освобождается сразу после отправки запроса, ответ дописывается через async-диспетчеризацию.
+ * Тело ответа не разбирается: байты сервера уходят клиенту вместе с его статусом и заголовками.
+ */
+@Component
+@ConditionalOnProperty(name = ServerTransport.PROPERTY, havingValue = "webclient")
+public class WebClientTransport implements ServerTransport {
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    @Autowired
+    public WebClientTransport(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                              HttpClientProperties properties) {
+        // очередь ожидания соединения не ограничена по длине, только по времени (connection-request-timeout)
+        this.connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxPerRoute())
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getSocketTimeout());
+        this.webClient = builder
+                .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) properties.getMaxResponseSize().toBytes()))
+                .build();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                 Map<String, Object> parameters, @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters)
+                .headers(h -> h.addAll(headers));
+        WebClient.RequestHeadersSpec<?> spec = body == null ? request : request.bodyValue(body);
+        return spec.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> ServerResponses.passThrough(response.getStatusCode(), response.getHeaders(),
+                        response.getBody()));
+    }
+
+    /**
+     * Буферы тела забираются потоком Tomcat через toIterable: запись в ответ клиенту блокирующая
+     * и не должна идти в event loop Netty, а ограниченная очередь toIterable даёт обратное давление на сервер.
+     */
+    @Override
+    public void stream(String path, HttpHeaders headers, HttpServletResponse response) throws IOException {
+        Flux<DataBuffer> body = webClient.get()
+                .uri(path)
+                .headers(h -> h.addAll(headers))
+                .exchangeToFlux(serverResponse -> {
+                    ServerResponses.writeHead(serverResponse.statusCode(), serverResponse.headers().asHttpHeaders(),
+                            response);
+                    return serverResponse.bodyToFlux(DataBuffer.class);
+                });
+        OutputStream out = response.getOutputStream();
+        for (DataBuffer buffer : body.toIterable()) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                out.write(bytes);
+                out.flush();
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+}
@@ -1,13 +1,13 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 
@@ -18,28 +18,26 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransport transport, ServerResponseCache cache, MeterRegistry registry) {
+        super(transport, cache, registry, API_PREFIX);
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemDtoShort item) {
+    public Mono<ResponseEntity<Object>> createItem(long userId, ItemDtoShort item) {
+        if (item.getRequestId() != null) {
+            return invalidating(post("", userId, item), "/requests/" + item.getRequestId());
+        }
         return post("", userId, item);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDtoShort item) {
-        return patch("/" + itemId, userId, item);
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDtoShort item) {
+        return invalidating(patch("/" + itemId, userId, item), API_PREFIX + "/" + itemId);
     }
 
-    public ResponseEntity<Object> getItem(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItem(long itemId, long userId) {
+        return getCached("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getItemsByUser(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItemsByUser(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -47,7 +45,7 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItems(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -56,8 +54,7 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> createComment(long itemId, long userId, CommentDtoRequest comment) {
-
-        return post("/" + itemId + "/comment", userId, comment);
+    public Mono<ResponseEntity<Object>> createComment(long itemId, long userId, CommentDtoRequest comment) {
+        return invalidating(post("/" + itemId + "/comment", userId, comment), API_PREFIX + "/" + itemId);
     }
 }
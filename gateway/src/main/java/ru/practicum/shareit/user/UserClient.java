@@ -1,47 +1,47 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerResponseCache;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
+    private static final String ITEMS_PREFIX = "/items/";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(ServerTransport transport, ServerResponseCache cache, MeterRegistry registry) {
+        super(transport, cache, registry, API_PREFIX);
     }
 
-    public ResponseEntity<Object> createUser(UserDto user) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto user) {
         return post("", user);
     }
 
-    public ResponseEntity<Object> updateUserById(long userId, UserDto user) {
-        return patch("/" + userId, user);
+    // имя автора входит в отзывы карточек вещей: сервер отмечает изменёнными все вещи с его отзывами,
+    // какие это вещи, gateway не знает - сбрасываются все карточки
+    public Mono<ResponseEntity<Object>> updateUserById(long userId, UserDto user) {
+        if (user.getName() != null && !user.getName().isBlank()) {
+            return invalidatingWithPrefix(patch("/" + userId, user), API_PREFIX + "/" + userId, ITEMS_PREFIX);
+        }
+        return invalidating(patch("/" + userId, user), API_PREFIX + "/" + userId);
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getUserById(long userId) {
+        return getCached("/" + userId, null);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 
-
-    public ResponseEntity<Object> deleteUserById(long userId) {
-        return delete("/" + userId);
+    public Mono<ResponseEntity<Object>> deleteUserById(long userId) {
+        return invalidating(delete("/" + userId), API_PREFIX + "/" + userId);
     }
 }
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.Marker;
 
@@ -18,14 +19,14 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Validated(Marker.OnCreate.class)
+    public Mono<ResponseEntity<Object>> createUser(@Validated(Marker.OnCreate.class)
                               @RequestBody UserDto user) {
         log.info("Получен запрос на создание пользователя");
         return userClient.createUser(user);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable long userId,
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable long userId,
                               @Validated(Marker.OnUpdate.class)
                               @RequestBody UserDto user) {
         log.info("Получен запрос на обновление пользователя с id {}", userId);
@@ -33,19 +34,19 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUser(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable long userId) {
         log.info("Получен запрос на получение пользователя с id {}", userId);
         return userClient.getUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         log.info("Получен запрос на получение всех пользователей");
         return userClient.getAllUsers();
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable long userId) {
         log.info("Получен запрос на удаление пользователя с id {}", userId);
         return userClient.deleteUserById(userId);
     }
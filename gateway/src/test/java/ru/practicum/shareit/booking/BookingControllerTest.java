@@ -13,11 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.constant.Constant;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -62,4 +65,39 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
         verifyNoInteractions(bookingClient);
     }
-}
\ No newline at end of file
+
+    @Test
+    void approveBookings_whenNoIds_thenReturnBadRequest() throws Exception {
+        BookingApprovalRequest emptyRequest = BookingApprovalRequest.builder()
+                .bookingIds(List.of())
+                .build();
+
+        mvc.perform(patch("/bookings?approved=true")
+                        .content(mapper.writeValueAsString(emptyRequest))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.USER_ID, "1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+
+    @Test
+    void approveBookings_whenTooManyIds_thenReturnBadRequest() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= BookingApprovalRequest.MAX_BOOKINGS + 1; id++) {
+            ids.add(id);
+        }
+
+        mvc.perform(patch("/bookings?approved=true")
+                        .content(mapper.writeValueAsString(BookingApprovalRequest.builder().bookingIds(ids).build()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.USER_ID, "1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingClient);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.item.dto.ItemDtoShort;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseClientMetricsTest {
+    private static final byte[] ITEM = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private SimpleMeterRegistry registry;
+    private ServerResponseCache cache;
+
+    @BeforeEach
+    void init() {
+        registry = new SimpleMeterRegistry();
+        cache = new ServerResponseCache(new ServerResponseCacheProperties());
+    }
+
+    @Test
+    void getItem_whenCachedSecondTime_thenOneServerRequestTimed() {
+        ItemClient client = new ItemClient((ExchangeTransport) (method, path, headers, parameters, body) ->
+                Mono.just(ResponseEntity.ok(ITEM)), cache, registry);
+
+        client.getItem(15L, 1L).block();
+        client.getItem(15L, 1L).block();
+
+        assertEquals(1, registry.get(BaseClient.TIMER)
+                .tags("method", "GET", "uri", "/items/{id}", "status", "200", "outcome", "SUCCESS")
+                .timer().count());
+    }
+
+    @Test
+    void updateItem_whenServerRejects_thenStatusTagged() {
+        ItemClient client = new ItemClient((ExchangeTransport) (method, path, headers, parameters, body) ->
+                Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()), cache, registry);
+
+        client.updateItem(1L, 15L, ItemDtoShort.builder().name("new").build()).block();
+
+        assertEquals(1, registry.get(BaseClient.TIMER)
+                .tags("method", "PATCH", "uri", "/items/{id}", "status", "404", "outcome", "CLIENT_ERROR")
+                .timer().count());
+    }
+
+    @Test
+    void searchItems_whenServerUnreachable_thenIoError() {
+        ItemClient client = new ItemClient((ExchangeTransport) (method, path, headers, parameters, body) -> {
+            throw new ResourceAccessException("Connection refused");
+        }, cache, registry);
+
+        assertThrows(ResourceAccessException.class, () -> client.searchItems("дрель", 0, 10));
+
+        assertEquals(1, registry.get(BaseClient.TIMER)
+                .tags("uri", "/items/search", "status", "IO_ERROR", "outcome", "UNKNOWN")
+                .timer().count());
+    }
+
+    @Test
+    void uriTemplate_thenIdsAndQueryDropped() {
+        assertEquals("/bookings/{id}", BaseClient.uriTemplate("/bookings/42?approved={approved}"));
+        assertEquals("/items/{id}/comment", BaseClient.uriTemplate("/items/7/comment"));
+        assertEquals("/bookings/owner", BaseClient.uriTemplate("/bookings/owner?state={state}&from={from}"));
+        assertEquals("/requests", BaseClient.uriTemplate("/requests"));
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequest;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Изменения через gateway сбрасывают только затронутые записи кэша: удаление пользователя - его карточку,
+ * смена имени - ещё и карточки вещей, где оно видно в отзывах,
+ * подтверждение бронирования - карточки вещей из ответа сервера. Все карточки вещей сбрасываются,
+ * только если ответа сервера нет или по нему не понять, что изменилось.
+ */
+class ClientCacheInvalidationTest {
+    private static final long USER = 1L;
+
+    private final List<String> requested = new ArrayList<>();
+    private ResponseEntity<Object> changeResponse = ResponseEntity.ok().build();
+    private ItemClient itemClient;
+    private UserClient userClient;
+    private BookingClient bookingClient;
+
+    @BeforeEach
+    void init() {
+        ServerResponseCache cache = new ServerResponseCache(new ServerResponseCacheProperties());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ServerTransport transport = (ExchangeTransport) (method, path, headers, parameters, body) -> {
+            if (method != HttpMethod.GET) {
+                return Mono.just(changeResponse);
+            }
+            requested.add(path);
+            return Mono.just(ResponseEntity.ok(json("{\"id\":1}")));
+        };
+        itemClient = new ItemClient(transport, cache, registry);
+        userClient = new UserClient(transport, cache, registry);
+        bookingClient = new BookingClient(transport, cache, registry, new ObjectMapper());
+    }
+
+    @Test
+    void deleteUserById_thenOnlyThatUserEvicted() {
+        warmUp();
+
+        userClient.deleteUserById(5L).block();
+        readAll();
+
+        assertEquals(List.of("/users/5"), requested);
+    }
+
+    @Test
+    void updateUserName_thenUserAndItemCardsEvicted() {
+        warmUp();
+        UserDto update = new UserDto();
+        update.setName("Renamed");
+
+        userClient.updateUserById(5L, update).block();
+        readAll();
+
+        assertEquals(List.of("/items/7", "/items/8", "/users/5"), requested);
+    }
+
+    @Test
+    void updateUserEmail_thenOnlyThatUserEvicted() {
+        warmUp();
+        UserDto update = new UserDto();
+        update.setEmail("renamed@mail.ru");
+
+        userClient.updateUserById(5L, update).block();
+        readAll();
+
+        assertEquals(List.of("/users/5"), requested);
+    }
+
+    @Test
+    void approveBooking_thenOnlyItemFromResponseEvicted() {
+        warmUp();
+        changeResponse = ResponseEntity.ok(json("{\"id\":10,\"status\":\"APPROVED\",\"item\":{\"id\":7,\"name\":\"Brain\"}}"));
+
+        bookingClient.approveBooking(USER, true, 10L).block();
+        readAll();
+
+        assertEquals(List.of("/items/7"), requested);
+    }
+
+    @Test
+    void approveBookings_thenOnlyChangedItemsEvicted() {
+        warmUp();
+        changeResponse = ResponseEntity.ok(json("[{\"bookingId\":10,\"itemId\":7,\"status\":\"APPROVED\"},"
+                + "{\"bookingId\":11,\"error\":\"Бронирование уже APPROVED\"}]"));
+
+        bookingClient.approveBookings(USER, true, BookingApprovalRequest.builder().bookingIds(List.of(10L, 11L)).build()).block();
+        readAll();
+
+        assertEquals(List.of("/items/7"), requested);
+    }
+
+    @Test
+    void approveBooking_whenClientError_thenNothingEvicted() {
+        warmUp();
+        changeResponse = ResponseEntity.status(HttpStatus.NOT_FOUND).body(json("{\"error\":\"not found\"}"));
+
+        bookingClient.approveBooking(USER, true, 10L).block();
+        readAll();
+
+        assertTrue(requested.isEmpty());
+    }
+
+    @Test
+    void approveBooking_whenServerError_thenAllItemsEvicted() {
+        warmUp();
+        changeResponse = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+
+        bookingClient.approveBooking(USER, true, 10L).block();
+        readAll();
+
+        assertEquals(List.of("/items/7", "/items/8"), requested);
+    }
+
+    // кладёт в кэш две карточки вещей и двух пользователей и обнуляет список запросов к серверу
+    private void warmUp() {
+        readAll();
+        requested.clear();
+    }
+
+    private void readAll() {
+        itemClient.getItem(7L, USER).block();
+        itemClient.getItem(8L, USER).block();
+        userClient.getUserById(5L).block();
+        userClient.getUserById(6L).block();
+    }
+
+    private static byte[] json(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Транспорт для тестов клиентов из одной лямбды exchange: потоковая выгрузка в них не вызывается.
+ */
+@FunctionalInterface
+public interface ExchangeTransport extends ServerTransport {
+
+    @Override
+    default void stream(String path, HttpHeaders headers, HttpServletResponse response) {
+        throw new UnsupportedOperationException("Тестовый транспорт не поддерживает потоковую выгрузку");
+    }
+}
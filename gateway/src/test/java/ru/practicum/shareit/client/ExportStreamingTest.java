@@ -0,0 +1,125 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+import ru.practicum.shareit.ShareItGateway;
+import ru.practicum.shareit.constant.Constant;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Выгрузка бронирований через gateway: первая строка доходит до клиента, пока сервер ещё не дописал ответ,
+ * ошибка сервера передаётся со своим статусом. Проверяются оба транспорта.
+ */
+class ExportStreamingTest {
+    private static final String FIRST = "{\"id\":2}\n";
+    private static final String SECOND = "{\"id\":1}\n";
+
+    // свои event loop: общие ресурсы Reactor Netty закрываются вместе с контекстом gateway
+    private static final LoopResources LOOPS = LoopResources.create("export");
+    private static final AtomicBoolean SERVER_FINISHED = new AtomicBoolean();
+    private static volatile CountDownLatch firstReceived;
+    private static DisposableServer server;
+
+    // вторая строка уходит только после того, как клиент получил первую (или по таймауту, если gateway буферизует)
+    @BeforeAll
+    static void startServer() {
+        server = HttpServer.create()
+                .runOn(LOOPS)
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/bookings/export", (request, response) -> response
+                                .header("Content-Type", "application/x-ndjson")
+                                .sendString(Flux.concat(Mono.just(FIRST), Mono.fromCallable(() -> {
+                                    firstReceived.await(5, TimeUnit.SECONDS);
+                                    SERVER_FINISHED.set(true);
+                                    return SECOND;
+                                }).subscribeOn(Schedulers.boundedElastic())), StandardCharsets.UTF_8))
+                        .get("/bookings/owner/export", (request, response) -> response
+                                .status(404)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"error\":\"Пользователь с id 1 не существует\"}"),
+                                        StandardCharsets.UTF_8)))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+        LOOPS.dispose();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"resttemplate", "webclient"})
+    void exportBookings_whenServerStillWriting_thenFirstLineAlreadyDelivered(String transport) {
+        SERVER_FINISHED.set(false);
+        firstReceived = new CountDownLatch(1);
+        try (ServletWebServerApplicationContext gateway = startGateway(transport)) {
+            StringBuilder body = new StringBuilder();
+            AtomicBoolean finishedBeforeFirstLine = new AtomicBoolean(true);
+            client(gateway).get().uri("/bookings/export")
+                    .responseContent()
+                    .asString(StandardCharsets.UTF_8)
+                    .doOnNext(chunk -> {
+                        body.append(chunk);
+                        if (firstReceived.getCount() > 0 && body.toString().contains(FIRST)) {
+                            finishedBeforeFirstLine.set(SERVER_FINISHED.get());
+                            firstReceived.countDown();
+                        }
+                    })
+                    .blockLast(Duration.ofSeconds(30));
+
+            assertFalse(finishedBeforeFirstLine.get(), "Первая строка пришла только после конца ответа сервера");
+            assertEquals(FIRST + SECOND, body.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"resttemplate", "webclient"})
+    void exportBookingsByOwner_whenServerError_thenStatusAndBodyPassedThrough(String transport) {
+        try (ServletWebServerApplicationContext gateway = startGateway(transport)) {
+            String body = client(gateway).get().uri("/bookings/owner/export")
+                    .responseSingle((response, content) -> {
+                        assertEquals(404, response.status().code());
+                        assertTrue(response.responseHeaders().get("Content-Type").startsWith("application/json"));
+                        return content.asString(StandardCharsets.UTF_8);
+                    })
+                    .block(Duration.ofSeconds(30));
+
+            assertEquals("{\"error\":\"Пользователь с id 1 не существует\"}", body);
+        }
+    }
+
+    private static HttpClient client(ServletWebServerApplicationContext gateway) {
+        return HttpClient.create()
+                .runOn(LOOPS)
+                .baseUrl("http://localhost:" + gateway.getWebServer().getPort())
+                .headers(h -> h.add(Constant.USER_ID, "1"));
+    }
+
+    private static ServletWebServerApplicationContext startGateway(String transport) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--logging.level.org.springframework.web.client.RestTemplate=INFO",
+                        "--shareit-server.url=http://localhost:" + server.port(),
+                        "--" + ServerTransport.PROPERTY + "=" + transport);
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.client;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Конкурентные запросы к заглушке shareit-server с задержкой ответа через общий пул из HttpClientConfig.
+ * Проверяется состояние пула и число соединений, которые увидел сервер, а не пропускная способность:
+ * соединения переиспользуются, а одновременно открытых на маршрут не больше maxPerRoute.
+ */
+@Slf4j
+class HttpClientPoolLoadTest {
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 25;
+    private static final long LATENCY_MS = 10;
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private static HttpServer server;
+    private static String url;
+    // клиентские порты соединений, по которым пришли запросы, и пик одновременно обрабатываемых запросов
+    private static final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        ((Logger) LoggerFactory.getLogger("org.apache.http")).setLevel(Level.INFO);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 256);
+        server.setExecutor(Executors.newFixedThreadPool(THREADS * 2));
+        server.createContext("/users", exchange -> {
+            connections.add(exchange.getRemoteAddress().getPort());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            exchange.getResponseBody().write(BODY);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/users/1";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        connections.clear();
+        maxInFlight.set(0);
+    }
+
+    @Test
+    void pooledRequestFactory_whenManyConcurrentRequests_thenConnectionsReused() throws Exception {
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties properties = new HttpClientProperties();
+        PoolingHttpClientConnectionManager connectionManager = config.shareItServerConnectionManager(properties);
+        CloseableHttpClient httpClient = config.shareItServerHttpClient(connectionManager, properties);
+
+        run(config.shareItServerRequestFactory(httpClient), REQUESTS);
+
+        PoolStats stats = connectionManager.getTotalStats();
+        assertEquals(properties.getMaxPerRoute(), connectionManager.getDefaultMaxPerRoute());
+        assertEquals(properties.getMaxTotal(), stats.getMax());
+        assertEquals(0, stats.getLeased());
+        assertEquals(0, stats.getPending());
+        // каждое соединение осталось в пуле и обслужило много запросов, а не одно
+        assertTrue(stats.getAvailable() > 0 && stats.getAvailable() <= THREADS, stats.toString());
+        assertTrue(connections.size() <= THREADS, connections.size() + " соединений");
+        httpClient.close();
+    }
+
+    @Test
+    void pooledRequestFactory_whenMoreThreadsThanMaxPerRoute_thenConnectionsLimited() throws Exception {
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxPerRoute(4);
+        PoolingHttpClientConnectionManager connectionManager = config.shareItServerConnectionManager(properties);
+        CloseableHttpClient httpClient = config.shareItServerHttpClient(connectionManager, properties);
+
+        // очередь за четырьмя соединениями: запросов меньше, чтобы тест не ждал секундами
+        run(config.shareItServerRequestFactory(httpClient), 4);
+
+        PoolStats stats = connectionManager.getTotalStats();
+        assertEquals(0, stats.getLeased());
+        assertTrue(stats.getAvailable() <= 4, stats.toString());
+        assertTrue(maxInFlight.get() <= 4, maxInFlight.get() + " одновременных запросов");
+        assertTrue(connections.size() <= 4, connections.size() + " соединений");
+        httpClient.close();
+    }
+
+    private void run(ClientHttpRequestFactory requestFactory, int requests) throws Exception {
+        RestTemplate rest = new RestTemplate(requestFactory);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < requests; i++) {
+                    assertNotNull(rest.getForObject(url, String.class));
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        log.info("{} запросов за {} с, соединений: {}", THREADS * requests,
+                String.format("%.2f", (System.nanoTime() - startedAt) / 1e9), connections.size());
+    }
+}
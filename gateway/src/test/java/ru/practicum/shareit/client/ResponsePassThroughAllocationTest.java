@@ -0,0 +1,253 @@
+package ru.practicum.shareit.client;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+import ru.practicum.shareit.ShareItGateway;
+import ru.practicum.shareit.constant.Constant;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Передача тела ответа сервера как есть на большом списке бронирований: в обычном прогоне - статус,
+ * Content-Type, X-Next-Cursor и байты тела без изменений в обоих режимах транспорта, тело ошибки 404 - тоже. Профиль аллокаций потоков Tomcat
+ * под JFR против прежнего разбора в Map и повторной сериализации помечен тегом bench и запускается
+ * только с профилем bench: mvn -Pbench test -pl gateway -Dtest=ResponsePassThroughAllocationTest.
+ * Записи остаются в target/jfr/*.jfr, их можно открыть в JDK Mission Control.
+ */
+@Slf4j
+class ResponsePassThroughAllocationTest {
+    private static final int BOOKINGS = 300;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final int REQUESTS = 500;
+    private static final int CONCURRENCY = 4;
+    private static final String PARSED_TRANSPORT = "parsed";
+    private static final String BOOKINGS_JSON = IntStream.range(0, BOOKINGS)
+            .mapToObj(i -> "{\"id\":" + i + ",\"start\":\"2030-01-01T10:00:00\",\"end\":\"2030-01-02T10:00:00\","
+                    + "\"status\":\"APPROVED\",\"booker\":{\"id\":2,\"name\":\"Booker\",\"email\":\"booker@mail.ru\"},"
+                    + "\"item\":{\"id\":" + i + ",\"name\":\"Вещь " + i + "\",\"description\":\"Описание вещи " + i
+                    + "\",\"available\":true}}")
+            .collect(Collectors.joining(",", "[", "]"));
+    private static final String NOT_FOUND = "{\"error\":\"Пользователь с id 1 не существует\"}";
+
+    private static final LoopResources LOOPS = LoopResources.create("allocation");
+    private static DisposableServer server;
+
+    @BeforeAll
+    static void startServer() {
+        server = HttpServer.create()
+                .runOn(LOOPS)
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/bookings/owner", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .header("X-Next-Cursor", "abc")
+                                .sendString(Mono.just(BOOKINGS_JSON), StandardCharsets.UTF_8))
+                        .get("/users/{id}", (request, response) -> response
+                                .status(404)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just(NOT_FOUND), StandardCharsets.UTF_8)))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+        LOOPS.dispose();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"resttemplate", "webclient"})
+    void getBookingsByOwner_whenBodyPassedThrough_thenBytesUnchanged(String transport) {
+        try (ServletWebServerApplicationContext gateway = startGateway(transport)) {
+            HttpClient client = HttpClient.create()
+                    .runOn(LOOPS)
+                    .baseUrl("http://localhost:" + gateway.getWebServer().getPort())
+                    .headers(h -> h.add(Constant.USER_ID, "1"));
+            byte[] body = client.get()
+                    .uri("/bookings/owner?state=ALL&from=0&size=" + BOOKINGS)
+                    .responseSingle((response, content) -> {
+                        assertEquals(200, response.status().code());
+                        assertTrue(response.responseHeaders().get("Content-Type").startsWith("application/json"));
+                        assertEquals("abc", response.responseHeaders().get("X-Next-Cursor"));
+                        return content.asByteArray();
+                    })
+                    .block(Duration.ofSeconds(30));
+            String error = client.get()
+                    .uri("/users/1")
+                    .responseSingle((response, content) -> {
+                        assertEquals(404, response.status().code());
+                        return content.asString(StandardCharsets.UTF_8);
+                    })
+                    .block(Duration.ofSeconds(30));
+
+            assertArrayEquals(BOOKINGS_JSON.getBytes(StandardCharsets.UTF_8), body);
+            assertEquals(NOT_FOUND, error);
+        }
+    }
+
+    @Test
+    @Tag("bench")
+    void getBookingsByOwner_whenBodyPassedThrough_thenTomcatThreadsAllocateLess() throws IOException {
+        long passThroughBytes = profile("resttemplate");
+        long parsedBytes = profile(PARSED_TRANSPORT);
+
+        log.info("Аллокации на запрос: байты как есть ~{} КБ, разбор и сериализация ~{} КБ",
+                passThroughBytes / REQUESTS / 1024, parsedBytes / REQUESTS / 1024);
+        assertTrue(passThroughBytes * 3 / 2 < parsedBytes,
+                "Байты как есть: " + passThroughBytes + ", разбор: " + parsedBytes);
+    }
+
+    // суммарный объём аллокаций потоков Tomcat (http-nio-*) за REQUESTS запросов после прогрева
+    private static long profile(String transport) throws IOException {
+        try (ServletWebServerApplicationContext gateway = startGateway(transport)) {
+            HttpClient client = HttpClient.create()
+                    .runOn(LOOPS)
+                    .baseUrl("http://localhost:" + gateway.getWebServer().getPort())
+                    .headers(h -> h.add(Constant.USER_ID, "1"));
+            sendRequests(client, WARMUP_REQUESTS);
+
+            Path dump = Paths.get("target", "jfr", "gateway-" + transport + ".jfr");
+            Files.createDirectories(dump.getParent());
+            try (Recording recording = new Recording()) {
+                recording.enable("jdk.ObjectAllocationInNewTLAB").withStackTrace();
+                recording.enable("jdk.ObjectAllocationOutsideTLAB").withStackTrace();
+                recording.start();
+                sendRequests(client, REQUESTS);
+                recording.stop();
+                recording.dump(dump);
+            }
+            return tomcatAllocations(transport, dump);
+        }
+    }
+
+    private static void sendRequests(HttpClient client, int count) {
+        Flux.range(0, count)
+                .flatMap(i -> client.get().uri("/bookings/owner?state=ALL&from=0&size=" + BOOKINGS)
+                        .responseSingle((response, body) -> {
+                            assertEquals(200, response.status().code());
+                            assertTrue(response.responseHeaders().get("Content-Type").startsWith("application/json"));
+                            return body.asString(StandardCharsets.UTF_8);
+                        }), CONCURRENCY)
+                .doOnNext(body -> assertTrue(body.contains("\"name\":\"Вещь 1\"")))
+                .blockLast(Duration.ofMinutes(1));
+    }
+
+    // TLAB-события дают оценку сверху: вес события - весь новый TLAB или размер объекта вне TLAB
+    private static long tomcatAllocations(String transport, Path dump) throws IOException {
+        Map<String, Long> byClass = new HashMap<>();
+        long total = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            RecordedThread thread = event.getThread("eventThread");
+            if (thread == null || thread.getJavaName() == null || !thread.getJavaName().startsWith("http-nio")) {
+                continue;
+            }
+            long bytes = event.hasField("tlabSize") ? event.getLong("tlabSize") : event.getLong("allocationSize");
+            total += bytes;
+            byClass.merge(event.getClass("objectClass").getName(), bytes, Long::sum);
+        }
+        log.info("{}: {} КБ за {} запросов, больше всего: {}", transport, total / 1024, REQUESTS,
+                byClass.entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                        .limit(5)
+                        .map(e -> e.getKey() + " " + e.getValue() / 1024 + " КБ")
+                        .collect(Collectors.joining(", ")));
+        return total;
+    }
+
+    private static ServletWebServerApplicationContext startGateway(String transport) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(ShareItGateway.class,
+                ParsingRestTemplateTransport.class)
+                .run("--server.port=0",
+                        "--logging.level.org.springframework.web.client.RestTemplate=INFO",
+                        "--shareit-server.url=http://localhost:" + server.port(),
+                        "--" + ServerTransport.PROPERTY + "=" + transport);
+    }
+
+    /**
+     * Прежнее поведение RestTemplateTransport: тело разбирается в Object (Map/List)
+     * и сериализуется Jackson обратно при ответе клиенту.
+     */
+    @ConditionalOnProperty(name = ServerTransport.PROPERTY, havingValue = PARSED_TRANSPORT)
+    static class ParsingRestTemplateTransport implements ServerTransport {
+        private final RestTemplate rest;
+
+        ParsingRestTemplateTransport(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                                     ClientHttpRequestFactory requestFactory) {
+            this.rest = builder
+                    .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                    .requestFactory(() -> requestFactory)
+                    .build();
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                     Map<String, Object> parameters, @Nullable Object body) {
+            try {
+                ResponseEntity<Object> response = rest.exchange(path, method, new HttpEntity<>(body, headers),
+                        Object.class, parameters);
+                return Mono.just(ResponseEntity.status(response.getStatusCode()).body(response.getBody()));
+            } catch (HttpStatusCodeException e) {
+                return Mono.just(ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray()));
+            }
+        }
+
+        // ответ целиком в памяти, затем клиенту
+        @Override
+        public void stream(String path, HttpHeaders headers, HttpServletResponse response) throws IOException {
+            ResponseEntity<byte[]> serverResponse;
+            try {
+                serverResponse = rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            } catch (HttpStatusCodeException e) {
+                serverResponse = ResponseEntity.status(e.getStatusCode()).headers(e.getResponseHeaders())
+                        .body(e.getResponseBodyAsByteArray());
+            }
+            ServerResponses.writeHead(serverResponse.getStatusCode(), serverResponse.getHeaders(), response);
+            if (serverResponse.getBody() != null) {
+                response.getOutputStream().write(serverResponse.getBody());
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerResponseCacheTest {
+    private static final String ITEM_PATH = "/items/1";
+    private static final byte[] ITEM = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UPDATED_ITEM = "{\"id\":1,\"name\":\"new\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<HttpHeaders> sentHeaders = new ArrayList<>();
+    private ServerResponseCacheProperties properties;
+    private ServerResponseCache cache;
+
+    @BeforeEach
+    void init() {
+        properties = new ServerResponseCacheProperties();
+        properties.setFreshFor(Duration.ofSeconds(5));
+        cache = new ServerResponseCache(properties, now::get);
+    }
+
+    @Test
+    void get_whenFresh_thenServedWithoutServer() {
+        ResponseEntity<Object> first = get(1L, ok(ITEM, "\"1\""));
+        ResponseEntity<Object> second = get(1L, ok(UPDATED_ITEM, "\"2\""));
+
+        assertEquals(1, sentHeaders.size());
+        assertArrayEquals(ITEM, (byte[]) first.getBody());
+        assertArrayEquals(ITEM, (byte[]) second.getBody());
+        assertEquals("\"1\"", second.getHeaders().getETag());
+    }
+
+    @Test
+    void get_whenOtherUser_thenSeparateEntry() {
+        get(1L, ok(ITEM, "\"1\""));
+        ResponseEntity<Object> otherUser = get(2L, ok(UPDATED_ITEM, "\"2\""));
+
+        assertEquals(2, sentHeaders.size());
+        assertArrayEquals(UPDATED_ITEM, (byte[]) otherUser.getBody());
+    }
+
+    @Test
+    void get_whenStaleAndNotModified_thenRevalidatedWithEtag() {
+        get(1L, ok(ITEM, "\"1\""));
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        ResponseEntity<Object> revalidated = get(1L, headers -> Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+        ResponseEntity<Object> fresh = get(1L, ok(UPDATED_ITEM, "\"2\""));
+
+        assertEquals(2, sentHeaders.size());
+        assertEquals(List.of("\"1\""), sentHeaders.get(1).getIfNoneMatch());
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertArrayEquals(ITEM, (byte[]) revalidated.getBody());
+        assertArrayEquals(ITEM, (byte[]) fresh.getBody());
+    }
+
+    @Test
+    void get_whenStaleAndModified_thenReplaced() {
+        get(1L, ok(ITEM, "\"1\""));
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        ResponseEntity<Object> modified = get(1L, ok(UPDATED_ITEM, "\"2\""));
+        ResponseEntity<Object> cached = get(1L, ok(ITEM, "\"1\""));
+
+        assertArrayEquals(UPDATED_ITEM, (byte[]) modified.getBody());
+        assertArrayEquals(UPDATED_ITEM, (byte[]) cached.getBody());
+        assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void get_whenOwnerCardAndBookingStartPassed_thenRevalidatedInsideFreshWindow() {
+        byte[] withNextBooking = "{\"id\":1,\"nextBooking\":{\"id\":5}}".getBytes(StandardCharsets.UTF_8);
+        byte[] withLastBooking = "{\"id\":1,\"lastBooking\":{\"id\":5}}".getBytes(StandardCharsets.UTF_8);
+        get(1L, headers -> Mono.just(ResponseEntity.ok().eTag("\"owner/1\"").cacheControl(CacheControl.noCache())
+                .body(withNextBooking)));
+        // начало бронирования прошло раньше fresh-for: ETag владельца на сервере уже другой
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        ResponseEntity<Object> shifted = get(1L, headers -> Mono.just(ResponseEntity.ok().eTag("\"owner/2\"")
+                .cacheControl(CacheControl.noCache()).body(withLastBooking)));
+        ResponseEntity<Object> unchanged = get(1L, headers -> Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+
+        assertEquals(3, sentHeaders.size());
+        assertEquals(List.of("\"owner/1\""), sentHeaders.get(1).getIfNoneMatch());
+        assertArrayEquals(withLastBooking, (byte[]) shifted.getBody());
+        assertEquals(List.of("\"owner/2\""), sentHeaders.get(2).getIfNoneMatch());
+        assertArrayEquals(withLastBooking, (byte[]) unchanged.getBody());
+    }
+
+    @Test
+    void get_whenError_thenNotCached() {
+        get(1L, headers -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ITEM)));
+        get(1L, headers -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ITEM)));
+
+        assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void invalidate_whenPathChanged_thenDroppedForAllUsers() {
+        get(1L, ok(ITEM, "\"1\""));
+        get(2L, ok(ITEM, "\"1\""));
+        cache.invalidate(ITEM_PATH);
+
+        assertArrayEquals(UPDATED_ITEM, (byte[]) get(1L, ok(UPDATED_ITEM, "\"2\"")).getBody());
+        assertArrayEquals(UPDATED_ITEM, (byte[]) get(2L, ok(UPDATED_ITEM, "\"2\"")).getBody());
+        assertEquals(4, sentHeaders.size());
+    }
+
+    @Test
+    void invalidate_whenRequestInFlight_thenOldResponseNotStored() {
+        get(1L, headers -> {
+            cache.invalidate(ITEM_PATH);
+            return ok(ITEM, "\"1\"").apply(headers);
+        });
+
+        get(1L, ok(UPDATED_ITEM, "\"2\""));
+
+        assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void get_whenMaxSizeExceeded_thenEvicted() {
+        properties.setMaxSize(DataSize.ofKilobytes(8));
+        cache = new ServerResponseCache(properties, now::get);
+        byte[] body = new byte[1024];
+        for (long userId = 0; userId < 100; userId++) {
+            get(userId, ok(body, null));
+        }
+        cache.cleanUp();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        double weight = registry.get("shareit.gateway.cache.weight").gauge().value();
+        assertTrue(weight <= DataSize.ofKilobytes(8).toBytes(), "Объём кэша: " + weight);
+        assertTrue(registry.get("cache.evictions").tag("cache", ServerResponseCache.CACHE_NAME)
+                .functionCounter().count() > 0);
+    }
+
+    private ResponseEntity<Object> get(Long userId, Function<HttpHeaders, Mono<ResponseEntity<Object>>> server) {
+        return cache.get(ITEM_PATH, userId, new HttpHeaders(), headers -> {
+            sentHeaders.add(headers);
+            return server.apply(headers);
+        }).block();
+    }
+
+    private static Function<HttpHeaders, Mono<ResponseEntity<Object>>> ok(byte[] body, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return headers -> Mono.just(response.body(body));
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+import ru.practicum.shareit.ShareItGateway;
+import ru.practicum.shareit.constant.Constant;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Gateway целиком поверх заглушки shareit-server с задержкой ответа, в обоих режимах транспорта
+ * и с виртуальными потоками Tomcat (только на JDK 21+). Пишет в лог пропускную способность, p99 задержки,
+ * пик числа потоков JVM и прирост памяти на соединение. Помечен тегом bench и запускается только с профилем bench;
+ * передачу статуса, заголовков и тела в обычном прогоне проверяет ResponsePassThroughAllocationTest.
+ * По умолчанию 200 одновременных соединений,
+ * для полного прогона: mvn -Pbench test -pl gateway -Dtest=ServerTransportBenchmarkTest -Dgateway.bench.connections=5000
+ */
+@Slf4j
+@Tag("bench")
+class ServerTransportBenchmarkTest {
+    private static final int CONNECTIONS = Integer.getInteger("gateway.bench.connections", 200);
+    private static final int ROUNDS = 2;
+    private static final Duration LATENCY = Duration.ofMillis(50);
+    private static final String ITEM = "{\"id\":1,\"name\":\"Brain\",\"description\":\"Amazing brain\",\"available\":true}";
+    private static final String NOT_FOUND = "{\"error\":\"Пользователь с id 1 не существует\"}";
+
+    // свои event loop: закрытие контекста gateway гасит глобальные ресурсы Reactor Netty
+    private static final LoopResources LOOPS = LoopResources.create("bench");
+    private static DisposableServer server;
+
+    @BeforeAll
+    static void startServer() {
+        server = HttpServer.create()
+                .runOn(LOOPS)
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/items/{id}", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .header("X-Next-Cursor", "abc")
+                                .sendString(Mono.delay(LATENCY).thenReturn(ITEM), StandardCharsets.UTF_8))
+                        .get("/users/{id}", (request, response) -> response
+                                .status(404)
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just(NOT_FOUND), StandardCharsets.UTF_8)))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+        LOOPS.dispose();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"resttemplate, false", "webclient, false", "resttemplate, true"})
+    void transport_whenManyConcurrentConnections_thenAllServedAndBodiesPassedThrough(String transport, boolean virtual) {
+        assumeTrue(!virtual || Runtime.version().feature() >= 21, "Виртуальные потоки доступны с JDK 21");
+        String mode = virtual ? transport + " + виртуальные потоки" : transport;
+        try (ServletWebServerApplicationContext gateway = startGateway(transport, virtual)) {
+            String gatewayUrl = "http://localhost:" + gateway.getWebServer().getPort();
+            ConnectionProvider connections = ConnectionProvider.builder("bench")
+                    .maxConnections(CONNECTIONS)
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            HttpClient client = HttpClient.create(connections)
+                    .runOn(LOOPS)
+                    .baseUrl(gatewayUrl)
+                    .headers(h -> h.add(Constant.USER_ID, "1"));
+
+            assertPassThrough(client);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+            long baselineNonHeap = memory.getNonHeapMemoryUsage().getUsed();
+            threads.resetPeakThreadCount();
+            AtomicLong peakHeap = new AtomicLong(baselineHeap);
+            AtomicLong peakNonHeap = new AtomicLong(baselineNonHeap);
+            Disposable sampler = Flux.interval(Duration.ofMillis(20))
+                    .subscribe(tick -> {
+                        peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                        peakNonHeap.accumulateAndGet(memory.getNonHeapMemoryUsage().getUsed(), Math::max);
+                    });
+
+            long startedAt = System.nanoTime();
+            List<Long> latencies = Flux.range(0, CONNECTIONS * ROUNDS)
+                    .flatMap(i -> timedGet(client), CONNECTIONS)
+                    .collectList()
+                    .block(Duration.ofMinutes(2));
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            sampler.dispose();
+
+            // стеки потоков платформы живут вне кучи, поэтому память на соединение - по куче и не-куче вместе
+            long bytesPerConnection = (peakHeap.get() - baselineHeap + peakNonHeap.get() - baselineNonHeap) / CONNECTIONS;
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            log.info("{}: {} соединений, {} запросов за {} с ({} запросов/с), p50 {} мс, p99 {} мс, "
+                            + "пик потоков JVM {}, ~{} КБ на соединение",
+                    mode, CONNECTIONS, sorted.length, String.format("%.2f", seconds),
+                    String.format("%.0f", sorted.length / seconds), percentile(sorted, 0.50),
+                    percentile(sorted, 0.99), threads.getPeakThreadCount(), bytesPerConnection / 1024);
+            assertEquals(CONNECTIONS * ROUNDS, sorted.length);
+            connections.disposeLater().block();
+        }
+    }
+
+    private static ServletWebServerApplicationContext startGateway(String transport, boolean virtual) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--server.tomcat.max-connections=" + (CONNECTIONS * 2),
+                        "--server.tomcat.accept-count=" + CONNECTIONS,
+                        "--server.tomcat.connection-timeout=2m",
+                        "--logging.level.org.springframework.web.client.RestTemplate=INFO",
+                        "--shareit-server.url=http://localhost:" + server.port(),
+                        "--" + ServerTransport.PROPERTY + "=" + transport,
+                        // иначе /items/1 отдаётся из кэша gateway и транспорт не нагружается
+                        "--shareit-server.cache.enabled=false",
+                        "--shareit.threads.virtual=" + virtual);
+    }
+
+    private static void assertPassThrough(HttpClient client) {
+        String item = client.get().uri("/items/1")
+                .responseSingle((response, body) -> {
+                    assertEquals(200, response.status().code());
+                    assertEquals("abc", response.responseHeaders().get("X-Next-Cursor"));
+                    return body.asString(StandardCharsets.UTF_8);
+                })
+                .block();
+        assertTrue(item.contains("\"name\":\"Brain\""), item);
+
+        String error = client.get().uri("/users/1")
+                .responseSingle((response, body) -> {
+                    assertEquals(404, response.status().code());
+                    return body.asString(StandardCharsets.UTF_8);
+                })
+                .block();
+        assertEquals(NOT_FOUND, error);
+    }
+
+    private static Mono<Long> timedGet(HttpClient client) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return client.get().uri("/items/1")
+                    .responseSingle((response, body) -> {
+                        assertEquals(200, response.status().code());
+                        return body.asString(StandardCharsets.UTF_8);
+                    })
+                    .map(body -> (System.nanoTime() - startedAt) / 1_000_000);
+        });
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
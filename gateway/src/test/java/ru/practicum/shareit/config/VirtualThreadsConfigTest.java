@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsConfigTest {
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_whenJdkBefore21_thenFailFast() throws Exception {
+        if (Runtime.version().feature() < 21) {
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    VirtualThreadsConfig::newVirtualThreadPerTaskExecutor);
+            assertTrue(exception.getMessage().contains("JDK 21+"));
+            return;
+        }
+        ExecutorService executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor();
+        boolean virtual = (boolean) executor.submit(() -> Thread.class.getMethod("isVirtual")
+                .invoke(Thread.currentThread())).get();
+        executor.shutdown();
+        assertTrue(virtual);
+    }
+}
@@ -0,0 +1,214 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузка на gateway смесью сценариев из {@link Traffic}. Прогон идёт в три фазы:
+ * <ol>
+ *     <li>прогрев с --concurrency клиентами, результаты не учитываются;</li>
+ *     <li>замер задержек: --duration (или по --requests запросов на клиента) с --concurrency клиентами,
+ *     p50/p95/p99 по каждому эндпоинту;</li>
+ *     <li>поиск насыщения: число клиентов удваивается каждые --ramp-step, пока пропускная способность
+ *     растёт больше чем на SATURATION_GAIN, ошибок меньше MAX_ERROR_RATE и не достигнут --max-concurrency.</li>
+ * </ol>
+ * Модель закрытая: каждый клиент отправляет следующий запрос, получив ответ на предыдущий. Сценарии клиент
+ * выбирает своим генератором от --seed, поэтому последовательность запросов повторяется от прогона к прогону.
+ */
+@Slf4j
+public class LoadTest {
+    private static final double SATURATION_GAIN = 1.05;
+    private static final double MAX_ERROR_RATE = 0.01;
+    private static final int OWNER_ITEMS = 50;
+
+    private final Options options;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+
+    public LoadTest(Options options) {
+        this.options = options;
+        // gateway - Tomcat без h2c: сразу HTTP/1.1, без попытки апгрейда на каждом соединении
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadTest loadTest = new LoadTest(options);
+        Report report = loadTest.run();
+        loadTest.objectMapper.writeValue(new File(options.getReport()), report);
+        log.info("Отчёт записан в {}", options.getReport());
+    }
+
+    public Report run() throws InterruptedException {
+        String startedAt = Instant.now().toString();
+        Traffic traffic = new Traffic(options, findOwners(), objectMapper);
+
+        log.info("Прогрев: {} клиентов, {}", options.getConcurrency(), options.getWarmup());
+        drive(traffic, options.getConcurrency(), options.getWarmup(), 0, new Stats());
+
+        Stats latency = new Stats();
+        double seconds;
+        if (options.getRequests() > 0) {
+            log.info("Замер задержек: {} клиентов, по {} запросов", options.getConcurrency(), options.getRequests());
+            seconds = drive(traffic, options.getConcurrency(), null, options.getRequests(), latency);
+        } else {
+            log.info("Замер задержек: {} клиентов, {}", options.getConcurrency(), options.getDuration());
+            seconds = drive(traffic, options.getConcurrency(), options.getDuration(), 0, latency);
+        }
+        Report.Phase phase = Report.Phase.builder()
+                .concurrency(options.getConcurrency())
+                .seconds(Stats.round(seconds))
+                .throughput(Stats.round(latency.requests() / seconds))
+                .p50Ms(latency.percentileMillis(50))
+                .p99Ms(latency.percentileMillis(99))
+                .endpoints(latency.results(seconds))
+                .build();
+        phase.getEndpoints().forEach((name, result) -> log.info("{}: {}", name, result));
+
+        Report.Saturation saturation = saturate(traffic);
+        return Report.builder()
+                .label(options.getLabel())
+                .startedAt(startedAt)
+                .gateway(options.getGateway())
+                .mix(options.getMix())
+                .latency(phase)
+                .saturation(saturation)
+                .build();
+    }
+
+    private Report.Saturation saturate(Traffic traffic) throws InterruptedException {
+        List<Report.Step> steps = new ArrayList<>();
+        Report.Step best = null;
+        for (int concurrency = 1; concurrency <= options.getMaxConcurrency(); concurrency *= 2) {
+            Stats stats = new Stats();
+            double seconds = drive(traffic, concurrency, options.getRampStep(), 0, stats);
+            Report.Step step = Report.Step.builder()
+                    .concurrency(concurrency)
+                    .throughput(Stats.round(stats.requests() / seconds))
+                    .p50Ms(stats.percentileMillis(50))
+                    .p99Ms(stats.percentileMillis(99))
+                    .errorRate(stats.errorRate())
+                    .build();
+            steps.add(step);
+            log.info("Насыщение: {}", step);
+            if (step.getErrorRate() > MAX_ERROR_RATE) {
+                break;
+            }
+            if (best != null && step.getThroughput() < best.getThroughput() * SATURATION_GAIN) {
+                if (step.getThroughput() > best.getThroughput()) {
+                    best = step;
+                }
+                break;
+            }
+            best = step;
+        }
+        return Report.Saturation.builder()
+                .throughput(best == null ? 0 : best.getThroughput())
+                .concurrency(best == null ? 0 : best.getConcurrency())
+                .steps(steps)
+                .build();
+    }
+
+    // фаза ограничена длительностью (duration) или числом запросов каждого клиента (requests > 0, duration = null);
+    // возвращает фактическую длительность фазы в секундах
+    private double drive(Traffic traffic, int concurrency, Duration duration, int requests, Stats stats)
+            throws InterruptedException {
+        if (duration != null && duration.isZero()) {
+            return 0;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        long deadline = duration == null ? Long.MAX_VALUE : started + duration.toNanos();
+        long limit = requests > 0 ? requests : Long.MAX_VALUE;
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(options.getSeed() * 31 + i);
+            workers.execute(() -> {
+                for (long sent = 0; sent < limit && !Thread.currentThread().isInterrupted(); sent++) {
+                    if (duration != null && System.nanoTime() >= deadline) {
+                        break;
+                    }
+                    call(traffic.next(random), stats);
+                }
+            });
+        }
+        workers.shutdown();
+        long timeout = duration == null ? TimeUnit.MINUTES.toMillis(10) : duration.toMillis();
+        if (!workers.awaitTermination(timeout + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        return (System.nanoTime() - started) / 1e9;
+    }
+
+    private void call(Traffic.Call call, Stats stats) {
+        long started = System.nanoTime();
+        int status;
+        HttpResponse<String> response = null;
+        try {
+            response = client.send(call.getRequest(), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+        } catch (IOException ex) {
+            status = -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        stats.record(call.getEndpoint(), System.nanoTime() - started, status);
+        if (response != null && call.getOnResponse() != null) {
+            call.getOnResponse().accept(response);
+        }
+    }
+
+    // владельцы ищутся среди первых пользователей: у DataGenerator вещей больше всего у них
+    private List<Traffic.Owner> findOwners() throws InterruptedException {
+        List<Traffic.Owner> owners = new ArrayList<>();
+        for (long userId = 1; userId <= Math.min(options.getOwnerProbe(), options.getUsers()); userId++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(options.getGateway()
+                            + "/items?from=0&size=" + OWNER_ITEMS))
+                    .header(Traffic.USER_ID, String.valueOf(userId))
+                    .GET()
+                    .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    continue;
+                }
+                List<Long> itemIds = new ArrayList<>();
+                for (JsonNode item : objectMapper.readTree(response.body())) {
+                    itemIds.add(item.get("id").asLong());
+                }
+                if (!itemIds.isEmpty()) {
+                    owners.add(new Traffic.Owner(userId, itemIds));
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Gateway недоступен: " + options.getGateway(), ex);
+            }
+        }
+        if (owners.isEmpty()) {
+            throw new IllegalStateException(String.format("Среди первых %d пользователей нет владельцев вещей: "
+                    + "заполните базу DataGenerator", options.getOwnerProbe()));
+        }
+        log.info("Найдено владельцев с вещами: {}", owners.size());
+        return owners;
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона. Размеры набора (--users, --items) те же, что у DataGenerator: по ним выбираются id.
+ */
+@Value
+@Builder
+public class Options {
+    // веса сценариев по умолчанию - примерная доля запросов в рабочем трафике
+    public static final String DEFAULT_MIX = "item.get:25,item.search:20,booking.list-by-owner:20,request.list-all:8,"
+            + "request.list-own:5,booking.create:12,booking.approve:10";
+
+    @Builder.Default
+    String gateway = "http://localhost:8080";
+    @Builder.Default
+    String label = "";
+    @Builder.Default
+    long seed = 42;
+    @Builder.Default
+    int users = 10_000;
+    @Builder.Default
+    int items = 25_000;
+    // сколько первых пользователей опросить, чтобы найти владельцев вещей
+    @Builder.Default
+    int ownerProbe = 200;
+    @Builder.Default
+    int concurrency = 8;
+    @Builder.Default
+    Duration warmup = Duration.ofSeconds(30);
+    @Builder.Default
+    Duration duration = Duration.ofSeconds(60);
+    // запросов каждого клиента в фазе замера; 0 - фаза ограничена --duration
+    @Builder.Default
+    int requests = 0;
+    @Builder.Default
+    Duration rampStep = Duration.ofSeconds(20);
+    @Builder.Default
+    int maxConcurrency = 256;
+    @Builder.Default
+    Map<String, Integer> mix = parseMix(DEFAULT_MIX);
+    @Builder.Default
+    String report = "load-report.json";
+
+    public static Options parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ожидался параметр вида --name=value: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        OptionsBuilder builder = Options.builder();
+        values.forEach((name, value) -> {
+            switch (name) {
+                case "gateway":
+                    builder.gateway(value);
+                    break;
+                case "label":
+                    builder.label(value);
+                    break;
+                case "seed":
+                    builder.seed(Long.parseLong(value));
+                    break;
+                case "users":
+                    builder.users(Integer.parseInt(value));
+                    break;
+                case "items":
+                    builder.items(Integer.parseInt(value));
+                    break;
+                case "owner-probe":
+                    builder.ownerProbe(Integer.parseInt(value));
+                    break;
+                case "concurrency":
+                    builder.concurrency(Integer.parseInt(value));
+                    break;
+                case "warmup":
+                    builder.warmup(parseDuration(value));
+                    break;
+                case "duration":
+                    builder.duration(parseDuration(value));
+                    break;
+                case "requests":
+                    builder.requests(Integer.parseInt(value));
+                    break;
+                case "ramp-step":
+                    builder.rampStep(parseDuration(value));
+                    break;
+                case "max-concurrency":
+                    builder.maxConcurrency(Integer.parseInt(value));
+                    break;
+                case "mix":
+                    builder.mix(parseMix(value));
+                    break;
+                case "report":
+                    builder.report(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр --" + name);
+            }
+        });
+        return builder.build();
+    }
+
+    // "item.get:25,item.search:20"
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Ожидался сценарий вида name:weight: " + entry);
+            }
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    // 500ms, 30s, 5m
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Ожидалась длительность вида 500ms, 30s или 5m: " + value);
+    }
+}
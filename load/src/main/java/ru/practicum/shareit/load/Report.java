@@ -0,0 +1,65 @@
+package ru.practicum.shareit.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отчёт прогона в JSON. Поля и эндпоинты идут в постоянном порядке, поэтому отчёты двух коммитов
+ * сравниваются обычным diff. Время - в миллисекундах, пропускная способность - в запросах в секунду.
+ */
+@Value
+@Builder
+public class Report {
+    String label;
+    String startedAt;
+    String gateway;
+    Map<String, Integer> mix;
+    Phase latency;
+    Saturation saturation;
+
+    @Value
+    @Builder
+    public static class Phase {
+        int concurrency;
+        double seconds;
+        double throughput;
+        double p50Ms;
+        double p99Ms;
+        Map<String, EndpointResult> endpoints;
+    }
+
+    @Value
+    @Builder
+    public static class EndpointResult {
+        long requests;
+        double throughput;
+        long clientErrors;
+        long errors;
+        double p50Ms;
+        double p95Ms;
+        double p99Ms;
+        double maxMs;
+    }
+
+    @Value
+    @Builder
+    public static class Saturation {
+        // наибольшая пропускная способность на ступенях и число параллельных клиентов, при котором она достигнута
+        double throughput;
+        int concurrency;
+        List<Step> steps;
+    }
+
+    @Value
+    @Builder
+    public static class Step {
+        int concurrency;
+        double throughput;
+        double p50Ms;
+        double p99Ms;
+        double errorRate;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и исходы запросов одной фазы по эндпоинтам. Гистограммы в микросекундах, три значащие цифры.
+ */
+public class Stats {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Histogram total = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+
+    public void record(String endpoint, long nanos, int status) {
+        long micros = Math.min(MAX_LATENCY_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latency.recordValue(micros);
+        total.recordValue(micros);
+        if (status >= 500 || status < 0) {
+            stats.errors.increment();
+        } else if (status >= 400) {
+            stats.clientErrors.increment();
+        }
+    }
+
+    public long requests() {
+        return total.getTotalCount();
+    }
+
+    // доля ответов 5xx и оборванных соединений, до четырёх знаков
+    public double errorRate() {
+        long requests = requests();
+        long errors = endpoints.values().stream().mapToLong(endpoint -> endpoint.errors.sum()).sum();
+        return requests == 0 ? 0 : Math.round(errors * 10_000.0 / requests) / 10_000.0;
+    }
+
+    public double percentileMillis(double percentile) {
+        return millis(total.getValueAtPercentile(percentile));
+    }
+
+    public Map<String, Report.EndpointResult> results(double seconds) {
+        Map<String, Report.EndpointResult> results = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> results.put(name, Report.EndpointResult.builder()
+                .requests(endpoint.latency.getTotalCount())
+                .throughput(round(endpoint.latency.getTotalCount() / seconds))
+                .clientErrors(endpoint.clientErrors.sum())
+                .errors(endpoint.errors.sum())
+                .p50Ms(millis(endpoint.latency.getValueAtPercentile(50)))
+                .p95Ms(millis(endpoint.latency.getValueAtPercentile(95)))
+                .p99Ms(millis(endpoint.latency.getValueAtPercentile(99)))
+                .maxMs(millis(endpoint.latency.getMaxValue()))
+                .build()));
+        return results;
+    }
+
+    static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static class Endpoint {
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
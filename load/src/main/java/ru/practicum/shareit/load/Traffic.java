@@ -0,0 +1,191 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Смесь сценариев с весами. Каждый вызов next() выбирает сценарий и собирает запрос к gateway.
+ * Подтверждать можно только бронирования, созданные этим же прогоном: booking.create складывает их в очередь,
+ * booking.approve забирает; пока очередь пуста, вместо подтверждения открывается карточка вещи.
+ */
+public class Traffic {
+    static final String USER_ID = "X-Sharer-User-Id";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE = 20;
+    private static final int MAX_PENDING = 10_000;
+    // из словаря DataGenerator: поиск находит вещи, как в рабочем трафике
+    private static final String[] SEARCH = {"дрель", "палатка", "велосипед", "проектор", "пылесос", "лыжи",
+            "стремянка", "мангал", "рюкзак", "складной", "аккумуляторный", "для дачи"};
+    // распределение state в списках владельца: чаще всего открывают все и ожидающие подтверждения
+    private static final List<String> SCENARIOS = List.of("item.get", "item.search", "booking.list-by-owner",
+            "request.list-all", "request.list-own", "booking.create", "booking.approve");
+    private static final String[] OWNER_STATES = {"ALL", "ALL", "ALL", "ALL", "WAITING", "WAITING", "FUTURE",
+            "FUTURE", "CURRENT", "PAST", "REJECTED"};
+
+    private final Options options;
+    private final List<Owner> owners;
+    private final String[] scenarios;
+    private final int[] cumulativeWeights;
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+
+    public Traffic(Options options, List<Owner> owners, ObjectMapper objectMapper) {
+        this.options = options;
+        this.owners = owners;
+        this.objectMapper = objectMapper;
+        this.scenarios = options.getMix().keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[scenarios.length];
+        int sum = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            if (!SCENARIOS.contains(scenarios[i])) {
+                throw new IllegalArgumentException(String.format("Неизвестный сценарий %s, есть: %s",
+                        scenarios[i], SCENARIOS));
+            }
+            sum += options.getMix().get(scenarios[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public Call next(SplittableRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int scenario = 0;
+        while (cumulativeWeights[scenario] <= roll) {
+            scenario++;
+        }
+        switch (scenarios[scenario]) {
+            case "item.get":
+                return itemCard(random);
+            case "item.search":
+                return new Call("item.search", get(randomUser(random), "/items/search?text="
+                        + encode(SEARCH[random.nextInt(SEARCH.length)]) + "&from=0&size=" + PAGE), null);
+            case "booking.list-by-owner":
+                String state = OWNER_STATES[random.nextInt(OWNER_STATES.length)];
+                return new Call("booking.list-by-owner." + state, get(randomOwner(random).getId(),
+                        "/bookings/owner?state=" + state + "&from=0&size=" + PAGE), null);
+            case "request.list-all":
+                return new Call("request.list-all", get(randomUser(random), "/requests/all?from=0&size=" + PAGE),
+                        null);
+            case "request.list-own":
+                return new Call("request.list-own", get(randomUser(random), "/requests?from=0&size=" + PAGE), null);
+            case "booking.create":
+                return createBooking(random);
+            case "booking.approve":
+                return approveBooking(random);
+            default:
+                throw new IllegalStateException("Неизвестный сценарий: " + scenarios[scenario]);
+        }
+    }
+
+    private Call itemCard(SplittableRandom random) {
+        return new Call("item.get", get(randomUser(random), "/items/" + (1 + random.nextInt(options.getItems()))),
+                null);
+    }
+
+    // даты далеко за окном DataGenerator, чтобы не пересекаться с загруженными бронированиями
+    private Call createBooking(SplittableRandom random) {
+        Owner owner = randomOwner(random);
+        long itemId = owner.getItemIds().get(random.nextInt(owner.getItemIds().size()));
+        long booker = randomUser(random);
+        if (booker == owner.getId()) {
+            booker = booker % options.getUsers() + 1;
+        }
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+                .plusDays(400 + random.nextInt(3_600))
+                .plusMinutes(random.nextInt(24 * 60));
+        LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+        String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}", itemId, start, end);
+        HttpRequest request = builder(booker, "/bookings")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return new Call("booking.create", request, response -> {
+            if (response.statusCode() / 100 == 2 && pendingSize.get() < MAX_PENDING) {
+                pending.add(new Pending(readId(response), owner.getId()));
+                pendingSize.incrementAndGet();
+            }
+        });
+    }
+
+    // подтверждать пока нечего - запрос карточки считается отдельно, чтобы не смешиваться с item.get
+    // и чтобы по отчёту было видно, сколько подтверждений не состоялось
+    private Call approveBooking(SplittableRandom random) {
+        Pending booking = pending.poll();
+        if (booking == null) {
+            return new Call("booking.approve.none-pending", itemCard(random).getRequest(), null);
+        }
+        pendingSize.decrementAndGet();
+        HttpRequest request = builder(booking.getOwnerId(), "/bookings/" + booking.getBookingId()
+                + "?approved=" + (random.nextInt(10) != 0))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        return new Call("booking.approve", request, null);
+    }
+
+    private long readId(HttpResponse<String> response) {
+        try {
+            JsonNode json = objectMapper.readTree(response.body());
+            return json.get("id").asLong();
+        } catch (Exception ex) {
+            throw new IllegalStateException("В ответе нет id бронирования: " + response.body(), ex);
+        }
+    }
+
+    private HttpRequest get(long userId, String path) {
+        return builder(userId, path).GET().build();
+    }
+
+    private HttpRequest.Builder builder(long userId, String path) {
+        return HttpRequest.newBuilder(URI.create(options.getGateway() + path))
+                .timeout(TIMEOUT)
+                .header(USER_ID, String.valueOf(userId))
+                .header("Accept", "application/json");
+    }
+
+    private long randomUser(SplittableRandom random) {
+        return 1 + random.nextInt(options.getUsers());
+    }
+
+    private Owner randomOwner(SplittableRandom random) {
+        return owners.get(random.nextInt(owners.size()));
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    // пользователь с вещами: его вещи бронируются, его списки бронирований открываются
+    @Value
+    public static class Owner {
+        long id;
+        List<Long> itemIds;
+    }
+
+    @Value
+    public static class Call {
+        String endpoint;
+        HttpRequest request;
+        Consumer<HttpResponse<String>> onResponse;
+    }
+
+    @Value
+    private static class Pending {
+        long bookingId;
+        long ownerId;
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Прогон против заглушки gateway: все сценарии смеси доходят до своих эндпоинтов, подтверждаются только
+ * созданные прогоном бронирования их владельцами, а отчёт содержит перцентили и ступени насыщения.
+ * Замер ограничен числом запросов одного клиента, а не временем: последовательность сценариев от --seed
+ * одна и та же при любой скорости заглушки.
+ */
+class LoadTestTest {
+    private static final long OWNER = 3;
+
+    private HttpServer server;
+    private final AtomicLong bookingIds = new AtomicLong();
+    private final Map<String, String> approvals = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void run_whenDefaultMix_thenEveryScenarioReported() throws Exception {
+        Report report = new LoadTest(options()).run();
+
+        Map<String, Report.EndpointResult> endpoints = report.getLatency().getEndpoints();
+        assertTrue(endpoints.keySet().containsAll(List.of("item.get", "item.search", "request.list-all",
+                "request.list-own", "booking.create", "booking.approve", "booking.list-by-owner.ALL")),
+                endpoints.keySet().toString());
+        endpoints.forEach((name, result) -> {
+            assertTrue(result.getRequests() > 0, name);
+            assertEquals(0, result.getErrors(), name);
+            assertTrue(result.getP50Ms() <= result.getP95Ms() && result.getP95Ms() <= result.getP99Ms(), name);
+        });
+        assertTrue(report.getLatency().getThroughput() > 0);
+        assertTrue(approvals.size() >= endpoints.get("booking.approve").getRequests());
+        approvals.forEach((booking, user) -> assertEquals(String.valueOf(OWNER), user, booking));
+
+        Report.Saturation saturation = report.getSaturation();
+        assertFalse(saturation.getSteps().isEmpty());
+        assertEquals(1, saturation.getSteps().get(0).getConcurrency());
+        assertTrue(saturation.getThroughput() > 0);
+    }
+
+    @Test
+    void run_whenServerErrors_thenCountedPerEndpoint() throws Exception {
+        server.createContext("/items/search", exchange -> respond(exchange, 500, "{}"));
+
+        Report report = new LoadTest(options()).run();
+
+        Report.EndpointResult search = report.getLatency().getEndpoints().get("item.search");
+        assertEquals(search.getRequests(), search.getErrors());
+        assertEquals(0, report.getLatency().getEndpoints().get("item.get").getErrors());
+    }
+
+    @Test
+    void parse_whenUnknownScenario_thenRejected() {
+        Options options = Options.parse(new String[]{"--mix=item.get:1,items.delete:1"});
+
+        assertThrows(IllegalArgumentException.class, () -> new Traffic(options, List.of(), null));
+    }
+
+    private Options options() {
+        return Options.builder()
+                .gateway("http://localhost:" + server.getAddress().getPort())
+                .users(10)
+                .items(20)
+                .ownerProbe(5)
+                .concurrency(1)
+                .warmup(Duration.ZERO)
+                .requests(300)
+                .rampStep(Duration.ofMillis(300))
+                .maxConcurrency(4)
+                .build();
+    }
+
+    // у пользователя OWNER две вещи, остальные владельцами не являются
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String user = exchange.getRequestHeaders().getFirst(Traffic.USER_ID);
+        String method = exchange.getRequestMethod();
+        if ("GET".equals(method) && "/items".equals(path)) {
+            respond(exchange, 200, String.valueOf(OWNER).equals(user) ? "[{\"id\":7},{\"id\":8}]" : "[]");
+        } else if ("POST".equals(method) && "/bookings".equals(path)) {
+            respond(exchange, 201, "{\"id\":" + bookingIds.incrementAndGet() + "}");
+        } else if ("PATCH".equals(method)) {
+            approvals.put(path, user);
+            respond(exchange, 200, "{}");
+        } else {
+            respond(exchange, 200, "[]");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+-- Сравнение поиска вещей: прежний upper(...) LIKE против ILIKE по pg_trgm-индексам.
+-- Запуск на пустой базе с применённой схемой (docker-compose, сервис db):
+--   psql -h localhost -p 6541 -U root -d shareit -f server/bench/item-search.sql
+-- Всё выполняется в транзакции и откатывается в конце.
+
+BEGIN;
+
+INSERT INTO users (name, email)
+SELECT 'bench-owner-' || g, 'bench-owner-' || g || '@bench.local'
+FROM generate_series(1, 1000) g;
+
+INSERT INTO items (name, description, is_available, owner_id)
+SELECT (ARRAY['Дрель', 'Отвертка', 'Пила', 'Лестница', 'Палатка', 'Велосипед', 'Молоток', 'Шуруповёрт'])[1 + g % 8]
+           || ' ' || md5(g::text),
+       'Описание ' || md5((g * 7)::text) || CASE WHEN g % 1000 = 0 THEN ' аккумуляторная' ELSE '' END,
+       g % 10 <> 0,
+       (SELECT min(id) FROM users) + g % 1000
+FROM generate_series(1, 1000000) g;
+
+ANALYZE items;
+
+\echo '== LIKE (ItemStorage.search) =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM items i
+WHERE i.is_available AND (upper(i.name) LIKE upper('%аккумуляторная%')
+    OR upper(i.description) LIKE upper('%аккумуляторная%'))
+ORDER BY CASE WHEN upper(i.name) LIKE upper('%аккумуляторная%') THEN 0 ELSE 1 END, i.id
+LIMIT 20;
+
+\echo '== pg_trgm (ItemStorage.searchByTrigram) =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM items i
+WHERE i.is_available AND (i.name ILIKE '%аккумуляторная%' OR i.description ILIKE '%аккумуляторная%')
+ORDER BY greatest(similarity(i.name, 'аккумуляторная'), similarity(i.description, 'аккумуляторная')) DESC, i.id
+LIMIT 20;
+
+\echo '== LIKE, короткий частый запрос =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM items i
+WHERE i.is_available AND (upper(i.name) LIKE upper('%дрель%') OR upper(i.description) LIKE upper('%дрель%'))
+ORDER BY CASE WHEN upper(i.name) LIKE upper('%дрель%') THEN 0 ELSE 1 END, i.id
+LIMIT 20;
+
+\echo '== pg_trgm, короткий частый запрос =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM items i
+WHERE i.is_available AND (i.name ILIKE '%дрель%' OR i.description ILIKE '%дрель%')
+ORDER BY greatest(similarity(i.name, 'дрель'), similarity(i.description, 'дрель')) DESC, i.id
+LIMIT 20;
+
+ROLLBACK;
@@ -0,0 +1,76 @@
+-- Страница 10 000 списка бронирований (size = 10): OFFSET против курсора (start_date, id).
+-- Запуск на пустой базе с применённой схемой (docker-compose, сервис db):
+--   psql -h localhost -p 6541 -U root -d shareit -f server/bench/keyset-pagination.sql
+-- Всё выполняется в транзакции и откатывается в конце.
+
+BEGIN;
+
+INSERT INTO users (name, email)
+SELECT 'bench-user-' || g, 'bench-user-' || g || '@bench.local'
+FROM generate_series(1, 2) g;
+
+INSERT INTO items (name, description, is_available, owner_id)
+SELECT 'Вещь ' || g, 'Описание ' || g, true, (SELECT min(id) FROM users WHERE email LIKE 'bench-user-%')
+FROM generate_series(1, 1000) g;
+
+-- 200 000 бронирований одного пользователя, часть с совпадающим start_date
+INSERT INTO bookings (start_date, end_date, item_id, booker_id, status)
+SELECT timestamp '2020-01-01' + (g / 2) * interval '1 minute',
+       timestamp '2020-01-01' + (g / 2) * interval '1 minute' + interval '1 day',
+       (SELECT min(id) FROM items) + g % 1000,
+       (SELECT max(id) FROM users WHERE email LIKE 'bench-user-%'),
+       'APPROVED'
+FROM generate_series(1, 200000) g;
+
+INSERT INTO requests (description, requestor_id, created_date)
+SELECT 'Запрос ' || g, (SELECT min(id) FROM users WHERE email LIKE 'bench-user-%'),
+       timestamp '2020-01-01' + g * interval '1 minute'
+FROM generate_series(1, 200000) g;
+
+ANALYZE bookings;
+ANALYZE requests;
+
+\set booker '(SELECT max(id) FROM users WHERE email LIKE ''bench-user-%'')'
+
+\echo '== /bookings, OFFSET 99990 (BookingStorage.findAllByBookerId) =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :booker
+ORDER BY b.start_date DESC, b.id DESC
+LIMIT 10 OFFSET 99990;
+
+-- курсор = последняя строка страницы 9 999, как его вернул бы X-Next-Cursor
+SELECT start_date AS cursor_start, id AS cursor_id FROM bookings b
+WHERE b.booker_id = :booker
+ORDER BY b.start_date DESC, b.id DESC
+LIMIT 1 OFFSET 99989 \gset
+
+\echo '== /bookings, после курсора (BookingStorage.findAllByBookerIdAfterCursor) =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bookings b
+WHERE b.booker_id = :booker
+  AND (b.start_date < :'cursor_start' OR (b.start_date = :'cursor_start' AND b.id < :cursor_id))
+ORDER BY b.start_date DESC, b.id DESC
+LIMIT 10;
+
+\echo '== /requests/all, OFFSET 99990 (ItemRequestStorage.findAllByRequestorIdNot) =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM requests r
+WHERE r.requestor_id <> :booker
+ORDER BY r.created_date DESC, r.id DESC
+LIMIT 10 OFFSET 99990;
+
+SELECT created_date AS cursor_created, id AS cursor_id FROM requests r
+WHERE r.requestor_id <> :booker
+ORDER BY r.created_date DESC, r.id DESC
+LIMIT 1 OFFSET 99989 \gset
+
+\echo '== /requests/all, после курсора (ItemRequestStorage.findAllByRequestorIdNotAfterCursor) =='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM requests r
+WHERE r.requestor_id <> :booker
+  AND (r.created_date < :'cursor_created' OR (r.created_date = :'cursor_created' AND r.id < :cursor_id))
+ORDER BY r.created_date DESC, r.id DESC
+LIMIT 10;
+
+ROLLBACK;
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.annotation;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.*;
+
+/**
+ * Повтор всей транзакции метода, если при коммите выяснилось, что сущность успели изменить (@Version).
+ * Пауза между попытками растёт экспоненциально со случайным разбросом, чтобы конкуренты не сталкивались снова.
+ * После последней неудачной попытки исключение уходит в ExceptionApiHandler и превращается в 409.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(value = ObjectOptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${shareit.retry.max-attempts:4}",
+        backoff = @Backoff(delayExpression = "${shareit.retry.delay-ms:20}",
+                maxDelayExpression = "${shareit.retry.max-delay-ms:200}",
+                multiplier = 2,
+                random = true))
+public @interface RetryOnOptimisticLock {
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.UpdateTimestamp;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
@@ -10,10 +11,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.WITH_ITEM, attributeNodes = @NamedAttributeNode("item"))
 @Data
 @SuperBuilder
 @NoArgsConstructor
 public class Booking {
+    // подтверждение и карточка бронирования: нужны имя вещи и id владельца, booker достаточно прокси с id
+    public static final String WITH_ITEM = "Booking.withItem";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,17 +29,30 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User booker;
 
+    @Column(name = "owner_id")
+    private Long ownerId; // текущий владелец вещи - копия items.owner_id для запросов владельца, её выравнивает BookingOwnerSync
+
     @Column(name = "status", nullable = false)
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version; // примитив: новизну сущности Spring Data по-прежнему определяет по id
+
+    @UpdateTimestamp
+    @Column(name = "last_modified", nullable = false)
+    private LocalDateTime lastModified;
 }
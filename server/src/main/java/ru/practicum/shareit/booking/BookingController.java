@@ -2,12 +2,21 @@ package ru.practicum.shareit.booking;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,10 +25,12 @@ import java.util.List;
 @Validated
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingExporter bookingExporter;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingExporter bookingExporter) {
         this.bookingService = bookingService;
+        this.bookingExporter = bookingExporter;
     }
 
     @PostMapping
@@ -37,28 +48,93 @@ public class BookingController {
         return bookingService.approvedBooking(userId, approved, bookingId);
     }
 
+    @PatchMapping
+    public List<BookingApprovalResult> approveBookings(@RequestHeader(Constant.OWNER_ID) long userId,
+                                                       @RequestParam Boolean approved,
+                                                       @RequestBody BookingApprovalRequest request) {
+        checkBookingIds(request.getBookingIds());
+        log.info("Получен запрос от пользователя с id {} на {} бронирований {}", userId, approved, request.getBookingIds());
+        return bookingService.approveBookings(userId, approved, request.getBookingIds());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDtoResponse getBookingById(@RequestHeader(Constant.OWNER_ID) long userId,
-                                             @PathVariable long bookingId) {
+                                             @PathVariable long bookingId,
+                                             WebRequest request) {
         log.info("Получен запрос от пользователя с id {} на просмотр бронирования {}", userId, bookingId);
+        if (bookingService.getBookingEtag(userId, bookingId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return bookingService.getBookingById(userId, bookingId);
     }
 
     @GetMapping
-    public List<BookingDtoResponse> getSortBookingByUser(@RequestHeader(Constant.OWNER_ID) long userId,
-                                                         @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @RequestParam(name = "size", defaultValue = "5") Integer size) {
+    public ResponseEntity<List<BookingDtoResponse>> getSortBookingByUser(@RequestHeader(Constant.OWNER_ID) long userId,
+                                                                         @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                         @RequestParam(name = "size", defaultValue = "5") Integer size,
+                                                                         @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Получен запрос от пользователя с id {} на просмотр списка бронирований с состоянием {}", userId, state);
-        return bookingService.getSortBookingByUser(userId, state, from, size);
+        List<BookingDtoResponse> bookings = cursor == null
+                ? bookingService.getSortBookingByUser(userId, state, from, size)
+                : bookingService.getSortBookingByUserAfter(userId, state, PageCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoResponse> getSortBookingByOwner(@RequestHeader(Constant.OWNER_ID) long userId,
-                                                          @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                          @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                          @RequestParam(name = "size", defaultValue = "5") Integer size) {
+    public ResponseEntity<List<BookingDtoResponse>> getSortBookingByOwner(@RequestHeader(Constant.OWNER_ID) long userId,
+                                                                          @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                          @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                          @RequestParam(name = "size", defaultValue = "5") Integer size,
+                                                                          @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Получен запрос от пользователя с id {} на просмотр списка бронирований с состоянием {}", userId, state);
-        return bookingService.getSortBookingByOwner(userId, state, from, size);
+        List<BookingDtoResponse> bookings = cursor == null
+                ? bookingService.getSortBookingByOwner(userId, state, from, size)
+                : bookingService.getSortBookingByOwnerAfter(userId, state, PageCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
+    }
+
+    // вся история без пагинации, по бронированию на строку; пишется в ответ по мере чтения из БД
+    @GetMapping("/export")
+    public void exportBookingsByUser(@RequestHeader(Constant.OWNER_ID) long userId,
+                                     HttpServletResponse response) throws IOException {
+        log.info("Получен запрос от пользователя с id {} на выгрузку его бронирований", userId);
+        bookingExporter.checkUserExists(userId);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bookingExporter.exportByBooker(userId, response.getOutputStream());
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsByOwner(@RequestHeader(Constant.OWNER_ID) long userId,
+                                      HttpServletResponse response) throws IOException {
+        log.info("Получен запрос от пользователя с id {} на выгрузку бронирований его вещей", userId);
+        bookingExporter.checkUserExists(userId);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bookingExporter.exportByOwner(userId, response.getOutputStream());
+    }
+
+    // gateway проверяет тело сам, но сервер не должен падать с 500 на запросе мимо него
+    private static void checkBookingIds(List<Long> bookingIds) {
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            throw new ValidationException("Не указаны бронирования");
+        }
+        if (bookingIds.size() > BookingApprovalRequest.MAX_BOOKINGS) {
+            throw new ValidationException(String.format("Нельзя изменить больше %d бронирований за раз",
+                    BookingApprovalRequest.MAX_BOOKINGS));
+        }
+        if (bookingIds.contains(null)) {
+            throw new ValidationException("Не указан id бронирования");
+        }
+    }
+
+    // курсор отдаётся и в режиме from/size, чтобы клиент мог перейти на курсоры с любой страницы
+    private static ResponseEntity<List<BookingDtoResponse>> withNextCursor(List<BookingDtoResponse> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDtoResponse last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constant.NEXT_CURSOR, new PageCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingListRow;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всей истории бронирований букера или владельца в NDJSON - по объекту BookingDtoResponse на строку.
+ * Строки читаются курсором и сразу пишутся в ответ, поэтому память не зависит от размера истории:
+ * проекции не попадают в контекст персистентности, ответ сбрасывается клиенту каждые FLUSH_EVERY строк.
+ */
+@Slf4j
+@Component
+public class BookingExporter {
+    private static final int FLUSH_EVERY = 500;
+    private static final byte NEW_LINE = '\n';
+
+    private final BookingStorage bookingStorage;
+    private final UserStorage userStorage;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public BookingExporter(BookingStorage bookingStorage, UserStorage userStorage, ObjectMapper objectMapper) {
+        this.bookingStorage = bookingStorage;
+        this.userStorage = userStorage;
+        this.writer = objectMapper.writerFor(BookingDtoResponse.class);
+    }
+
+    // вызывается до начала выгрузки: после первой строки статус ответа уже не поменять
+    @Transactional(readOnly = true)
+    public void checkUserExists(long userId) {
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException(String.format("Пользователь с id %d не существует", userId));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportByBooker(long userId, OutputStream out) throws IOException {
+        try (Stream<BookingListRow> rows = bookingStorage.streamAllByBookerId(userId)) {
+            long count = write(rows, out);
+            log.info("Выгружено {} бронирований пользователя с id {}", count, userId);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportByOwner(long userId, OutputStream out) throws IOException {
+        try (Stream<BookingListRow> rows = bookingStorage.streamAllByOwnerId(userId)) {
+            long count = write(rows, out);
+            log.info("Выгружено {} бронирований вещей владельца с id {}", count, userId);
+            return count;
+        }
+    }
+
+    private long write(Stream<BookingListRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Iterator<BookingListRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            out.write(writer.writeValueAsBytes(BookingMapper.toBookingDtoResponse(iterator.next())));
+            out.write(NEW_LINE);
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
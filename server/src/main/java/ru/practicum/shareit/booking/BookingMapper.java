@@ -4,10 +4,14 @@ import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingListRow;
+import ru.practicum.shareit.booking.dto.NeighbourBooking;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDtoForBooking;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDtoForBooking;
 
 @UtilityClass
 public class BookingMapper {
@@ -22,23 +26,32 @@ public class BookingMapper {
                 .build();
     }
 
+    public BookingDtoResponse toBookingDtoResponse(BookingListRow row) {
+        return BookingDtoResponse.builder()
+                .id(row.getId())
+                .start(row.getStart())
+                .end(row.getEnd())
+                .item(ItemDtoForBooking.builder().id(row.getItemId()).name(row.getItemName()).build())
+                .booker(UserDtoForBooking.builder().id(row.getBookerId()).build())
+                .status(row.getStatus())
+                .build();
+    }
+
     public Booking toBooking(BookingDtoRequest bookingDto, Item item, User user, BookingStatus status) {
         return Booking.builder()
                 .start(bookingDto.getStart())
                 .end(bookingDto.getEnd())
                 .item(item)
                 .booker(user)
+                .ownerId(item.getOwner().getId())
                 .status(status)
                 .build();
     }
 
-    public BookingForItemDto toBookingForItemDto(Booking booking) {
-        if (booking == null) {
-            return null;
-        }
+    public BookingForItemDto toBookingForItemDto(NeighbourBooking booking) {
         return BookingForItemDto.builder()
                 .id(booking.getId())
-                .bookerId(booking.getBooker().getId())
+                .bookerId(booking.getBookerId())
                 .build();
     }
 }
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировки вещей на время транзакции создания бронирования: проверка пересечений и вставка
+ * для одной вещи идут по очереди. Нужны там, где нет exclusion constraint (H2), и работают только
+ * в пределах одного экземпляра сервера. Вещи распределяются по фиксированному набору замков по id.
+ */
+@Component
+public class BookingOverlapLocks {
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+    private final Lock[] stripes = new Lock[STRIPES];
+
+    @Autowired
+    public BookingOverlapLocks(@Value("${shareit.bookings.overlap-lock.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // замок отпускается после коммита или отката текущей транзакции
+    public void lockItem(long itemId) {
+        if (!enabled) {
+            return;
+        }
+        Lock lock = stripes[Math.floorMod(itemId, STRIPES)];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
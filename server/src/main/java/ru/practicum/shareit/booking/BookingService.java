@@ -1,37 +1,53 @@
 package ru.practicum.shareit.booking;
 
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.annotation.RetryOnOptimisticLock;
+import ru.practicum.shareit.booking.dto.BookingApprovalResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
-import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.booking.dto.BookingListRow;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.BookingStatusException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.pagination.Paginator;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserStorage;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class BookingService {
+    private static final Set<BookingStatus> ACTIVE_STATUSES = Set.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final String OVERLAP_CONSTRAINT = "ex_bookings_item_period";
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final BookingStorage bookingStorage;
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
+    private final BookingOverlapLocks overlapLocks;
 
     @Autowired
-    public BookingService(BookingStorage bookingStorage, ItemStorage itemStorage, UserStorage userStorage) {
+    public BookingService(BookingStorage bookingStorage, ItemStorage itemStorage, UserStorage userStorage,
+                          BookingOverlapLocks overlapLocks) {
         this.bookingStorage = bookingStorage;
         this.itemStorage = itemStorage;
         this.userStorage = userStorage;
+        this.overlapLocks = overlapLocks;
     }
 
     @Transactional
@@ -47,12 +63,29 @@ public class BookingService {
             throw new NotFoundException("Владелец не может бронировать свои вещи");
         }
 
+        overlapLocks.lockItem(item.getId());
+        if (bookingStorage.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+                item.getId(), ACTIVE_STATUSES, bookingDto.getEnd(), bookingDto.getStart())) {
+            throw new ConflictException(String.format("Вещь с id %d уже забронирована на этот период", item.getId()));
+        }
+
         Booking booking = BookingMapper.toBooking(bookingDto, item, booker, BookingStatus.WAITING);
-        bookingStorage.save(booking);
+        try {
+            bookingStorage.save(booking);
+            bookingStorage.flush();
+        } catch (DataIntegrityViolationException ex) {
+            // конкурентное бронирование успело раньше - сработал ex_bookings_item_period в PostgreSQL;
+            // прочие нарушения (внешние ключи, NOT NULL) - ошибка данных, а не двойное бронирование
+            if (!isOverlapViolation(ex)) {
+                throw ex;
+            }
+            throw new ConflictException(String.format("Вещь с id %d уже забронирована на этот период", item.getId()));
+        }
         log.info("Пользователь с id {} забронировал вещь с id {}", userId, bookingDto.getItemId());
         return BookingMapper.toBookingDtoResponse(booking);
     }
 
+    @RetryOnOptimisticLock
     @Transactional
     public BookingDtoResponse approvedBooking(long userId, boolean approved, long bookingId) {
         Booking booking = checkBookingId(bookingId);
@@ -70,10 +103,60 @@ public class BookingService {
             booking.setStatus(BookingStatus.REJECTED);
         }
         Booking savedBooking = bookingStorage.save(booking);
+        itemStorage.touch(List.of(booking.getItem().getId()), LocalDateTime.now());
         log.info("Владелец изменил статус бронирования с id {} на {}", bookingId, approved);
         return BookingMapper.toBookingDtoResponse(savedBooking);
     }
 
+    /**
+     * Подтверждение или отклонение нескольких бронирований владельцем в одной транзакции.
+     * Ошибки проверяются по каждому id отдельно и не мешают остальным; изменённые строки
+     * уходят в БД пачкой при коммите (hibernate.jdbc.batch_size). Порядок результатов - как в запросе.
+     */
+    @RetryOnOptimisticLock
+    @Transactional
+    public List<BookingApprovalResult> approveBookings(long userId, boolean approved, List<Long> bookingIds) {
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        Map<Long, Booking> bookings = bookingStorage.findAllWithItemByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        List<BookingApprovalResult> results = new ArrayList<>(ids.size());
+        Set<Long> changedItemIds = new HashSet<>();
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            BookingApprovalResult.BookingApprovalResultBuilder<?, ?> result = BookingApprovalResult.builder().bookingId(id);
+            if (booking == null) {
+                result.error(String.format("Бронирование с id %d не существует", id));
+            } else if (booking.getItem().getOwner().getId() != userId) {
+                result.error(String.format(
+                        "Пользователь с id %d не является владельцем вещи %d", userId, booking.getItem().getId()));
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                result.error(String.format("Бронирование уже %s", booking.getStatus()));
+            } else {
+                booking.setStatus(newStatus);
+                result.status(newStatus).itemId(booking.getItem().getId());
+                changedItemIds.add(booking.getItem().getId());
+            }
+            results.add(result.build());
+        }
+        if (!changedItemIds.isEmpty()) {
+            itemStorage.touch(changedItemIds, LocalDateTime.now());
+        }
+        log.info("Владелец с id {} изменил статус {} из {} бронирований на {}", userId,
+                results.stream().filter(r -> r.getStatus() != null).count(), ids.size(), approved);
+        return results;
+    }
+
+    // ETag ответа getBookingById; пусто, если бронирования нет или пользователь к нему не относится
+    @Transactional(readOnly = true)
+    public Optional<String> getBookingEtag(long userId, long bookingId) {
+        return bookingStorage.findVersionById(bookingId)
+                .filter(v -> v.getBookerId() == userId || v.getOwnerId() == userId)
+                .map(v -> EntityTags.of("booking", bookingId, v.getVersion(), v.getLastModified(),
+                        v.getItemVersion(), v.getItemLastModified()));
+    }
+
     @Transactional(readOnly = true)
     public BookingDtoResponse getBookingById(long userId, long bookingId) {
         Booking booking = checkBookingId(bookingId);
@@ -88,9 +171,8 @@ public class BookingService {
     @Transactional(readOnly = true)
     public List<BookingDtoResponse> getSortBookingByUser(long userId, String stateStr, Integer from, Integer size) {
         BookingStateStatus state = BookingStateStatus.toState(stateStr);
-        checkUserId(userId);
-        List<Booking> bookings = null;
-        PageRequest pagination = Paginator.withSort(from, size, Constant.SORT_BY_START_DESC);
+        List<BookingListRow> bookings = null;
+        PageRequest pagination = Paginator.simplePage(from, size); // порядок start desc, id desc задан в запросах
         switch (state) {
             case ALL:
                 bookings = bookingStorage.findAllByBookerId(userId, pagination);
@@ -111,6 +193,7 @@ public class BookingService {
                 bookings = bookingStorage.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, pagination);
                 break;
         }
+        checkUserExistsIfEmpty(userId, bookings);
         log.info("Получен список бронирований");
         return bookings.stream().map(BookingMapper::toBookingDtoResponse).collect(Collectors.toList());
     }
@@ -118,45 +201,132 @@ public class BookingService {
     @Transactional(readOnly = true)
     public List<BookingDtoResponse> getSortBookingByOwner(long userId, String stateStr, Integer from, Integer size) {
         BookingStateStatus state = BookingStateStatus.toState(stateStr);
-        checkUserId(userId);
-        List<Booking> bookings = null;
-        PageRequest pagination = Paginator.withSort(from, size, Constant.SORT_BY_START_DESC);
+        List<BookingListRow> bookings = null;
+        PageRequest pagination = Paginator.simplePage(from, size); // порядок start desc, id desc задан в запросах
         switch (state) {
             case ALL:
-                bookings = bookingStorage.findAllByItemOwnerId(userId, pagination);
+                bookings = bookingStorage.findAllByOwnerId(userId, pagination);
                 break;
             case CURRENT:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartBeforeAndEndAfter(userId, LocalDateTime.now(), LocalDateTime.now(), pagination);
+                bookings = bookingStorage.findAllByOwnerIdAndStartBeforeAndEndAfter(userId, LocalDateTime.now(), LocalDateTime.now(), pagination);
                 break;
             case PAST:
-                bookings = bookingStorage.findAllByItemOwnerIdAndEndBefore(userId, LocalDateTime.now(), pagination);
+                bookings = bookingStorage.findAllByOwnerIdAndEndBefore(userId, LocalDateTime.now(), pagination);
                 break;
             case FUTURE:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartAfter(userId, LocalDateTime.now(), pagination);
+                bookings = bookingStorage.findAllByOwnerIdAndStartAfter(userId, LocalDateTime.now(), pagination);
                 break;
             case WAITING:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, pagination);
+                bookings = bookingStorage.findAllByOwnerIdAndStatus(userId, BookingStatus.WAITING, pagination);
                 break;
             case REJECTED:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED, pagination);
+                bookings = bookingStorage.findAllByOwnerIdAndStatus(userId, BookingStatus.REJECTED, pagination);
                 break;
         }
+        checkUserExistsIfEmpty(userId, bookings);
         log.info("Получен список бронирований");
         return bookings.stream().map(BookingMapper::toBookingDtoResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<BookingDtoResponse> getSortBookingByUserAfter(long userId, String stateStr, PageCursor cursor, Integer size) {
+        BookingStateStatus state = BookingStateStatus.toState(stateStr);
+        List<BookingListRow> bookings = null;
+        LocalDateTime start = cursor.getTimestamp();
+        long id = cursor.getId();
+        PageRequest pagination = Paginator.keyset(size);
+        switch (state) {
+            case ALL:
+                bookings = bookingStorage.findAllByBookerIdAfterCursor(userId, start, id, pagination);
+                break;
+            case CURRENT:
+                bookings = bookingStorage.findCurrentByBookerIdAfterCursor(userId, LocalDateTime.now(), start, id, pagination);
+                break;
+            case PAST:
+                bookings = bookingStorage.findPastByBookerIdAfterCursor(userId, LocalDateTime.now(), start, id, pagination);
+                break;
+            case FUTURE:
+                bookings = bookingStorage.findFutureByBookerIdAfterCursor(userId, LocalDateTime.now(), start, id, pagination);
+                break;
+            case WAITING:
+                bookings = bookingStorage.findAllByBookerIdAndStatusAfterCursor(userId, BookingStatus.WAITING, start, id, pagination);
+                break;
+            case REJECTED:
+                bookings = bookingStorage.findAllByBookerIdAndStatusAfterCursor(userId, BookingStatus.REJECTED, start, id, pagination);
+                break;
+        }
+        checkUserExistsIfEmpty(userId, bookings);
+        log.info("Получен список бронирований после курсора {}", cursor);
+        return bookings.stream().map(BookingMapper::toBookingDtoResponse).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingDtoResponse> getSortBookingByOwnerAfter(long userId, String stateStr, PageCursor cursor, Integer size) {
+        BookingStateStatus state = BookingStateStatus.toState(stateStr);
+        List<BookingListRow> bookings = null;
+        LocalDateTime start = cursor.getTimestamp();
+        long id = cursor.getId();
+        PageRequest pagination = Paginator.keyset(size);
+        switch (state) {
+            case ALL:
+                bookings = bookingStorage.findAllByOwnerIdAfterCursor(userId, start, id, pagination);
+                break;
+            case CURRENT:
+                bookings = bookingStorage.findCurrentByOwnerIdAfterCursor(userId, LocalDateTime.now(), start, id, pagination);
+                break;
+            case PAST:
+                bookings = bookingStorage.findPastByOwnerIdAfterCursor(userId, LocalDateTime.now(), start, id, pagination);
+                break;
+            case FUTURE:
+                bookings = bookingStorage.findFutureByOwnerIdAfterCursor(userId, LocalDateTime.now(), start, id, pagination);
+                break;
+            case WAITING:
+                bookings = bookingStorage.findAllByOwnerIdAndStatusAfterCursor(userId, BookingStatus.WAITING, start, id, pagination);
+                break;
+            case REJECTED:
+                bookings = bookingStorage.findAllByOwnerIdAndStatusAfterCursor(userId, BookingStatus.REJECTED, start, id, pagination);
+                break;
+        }
+        checkUserExistsIfEmpty(userId, bookings);
+        log.info("Получен список бронирований после курсора {}", cursor);
+        return bookings.stream().map(BookingMapper::toBookingDtoResponse).collect(Collectors.toList());
+    }
+
+    // PostgreSQL сообщает о нарушении exclusion-ограничения кодом 23P01, имя ограничения Hibernate для него не извлекает
+    static boolean isOverlapViolation(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException
+                    && OVERLAP_CONSTRAINT.equalsIgnoreCase(((ConstraintViolationException) cause).getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private User checkUserId(long userId) {
         return userStorage.findById(userId).orElseThrow(() ->
                 new NotFoundException(String.format("Пользователь с id %d не существует", userId)));
     }
 
+    // бронирование ссылается на букера и владельца внешним ключом, поэтому непустая страница уже доказывает,
+    // что пользователь есть; проверка нужна только для пустой, чтобы отличить 404 от пустого списка.
+    // findById, а не existsById: User читается из кэша второго уровня, count пошёл бы в базу
+    private void checkUserExistsIfEmpty(long userId, List<BookingListRow> bookings) {
+        if (bookings.isEmpty() && userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException(String.format("Пользователь с id %d не существует", userId));
+        }
+    }
+
     private Item checkItemId(long itemId) {
         return itemStorage.findById(itemId).orElseThrow(() ->
                 new NotFoundException(String.format("Вещь с id %d не существует", itemId)));
     }
 
     private Booking checkBookingId(long bookingId) {
-        return bookingStorage.findById(bookingId).orElseThrow(() ->
+        return bookingStorage.findWithItemById(bookingId).orElseThrow(() ->
                 new NotFoundException(String.format("Бронирование с id %d не существует", bookingId)));
     }
 
@@ -1,31 +1,207 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingListRow;
+import ru.practicum.shareit.booking.dto.BookingVersion;
+import ru.practicum.shareit.booking.dto.NeighbourBooking;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingStorage extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByItemOwnerId(long owner, PageRequest pageRequest);
+    // колонки для BookingMapper: вещь присоединяется только ради названия, букер - по внешнему ключу без join
+    String LIST_ROW = "select new ru.practicum.shareit.booking.dto.BookingListRow(b.id, b.start, b.end, b.status, " +
+            " i.id, i.name, b.booker.id) from Booking b join b.item i ";
+    String ORDER_BY_START = " order by b.start desc, b.id desc";
+    String EXPORT_FETCH_SIZE = "500";
 
-    List<Booking> findAllByBookerId(long bookerId, PageRequest pageRequest);
+    // продолжение выдачи строго после курсора (start, id) в порядке start desc, id desc
+    String AFTER_CURSOR = " and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+            ORDER_BY_START;
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(long bookerId, LocalDateTime start, LocalDateTime end, PageRequest pageRequest);
+    @Query(LIST_ROW + "where b.ownerId = :ownerId" + ORDER_BY_START)
+    List<BookingListRow> findAllByOwnerId(@Param("ownerId") long ownerId, PageRequest pageRequest);
 
-    List<Booking> findAllByBookerIdAndEndBefore(long bookerId, LocalDateTime end, PageRequest pageRequest);
+    // выгрузка всей истории: курсор JDBC только вперёд, строки читаются пачками по fetch size;
+    // в PostgreSQL курсор работает только внутри транзакции, поэтому Stream закрывается до её конца
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(LIST_ROW + "where b.booker.id = :bookerId" + ORDER_BY_START)
+    Stream<BookingListRow> streamAllByBookerId(@Param("bookerId") long bookerId);
 
-    List<Booking> findAllByBookerIdAndStartAfter(long bookerId, LocalDateTime start, PageRequest pageRequest);
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(LIST_ROW + "where b.ownerId = :ownerId" + ORDER_BY_START)
+    Stream<BookingListRow> streamAllByOwnerId(@Param("ownerId") long ownerId);
 
-    List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus status, PageRequest pageRequest);
+    @EntityGraph(Booking.WITH_ITEM)
+    Optional<Booking> findWithItemById(long bookingId);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(long owner, LocalDateTime start, LocalDateTime end, PageRequest pageRequest);
+    // для проверки владельца хватает прокси owner с id, вещь нужна целиком - её имя уходит в ответ
+    @EntityGraph(Booking.WITH_ITEM)
+    @Query("select b from Booking b where b.id in :ids")
+    List<Booking> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
 
-    List<Booking> findAllByItemOwnerIdAndEndBefore(long owner, LocalDateTime end, PageRequest pageRequest);
+    @Query(LIST_ROW + "where b.booker.id = :bookerId" + ORDER_BY_START)
+    List<BookingListRow> findAllByBookerId(@Param("bookerId") long bookerId, PageRequest pageRequest);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfter(long owner, LocalDateTime start, PageRequest pageRequest);
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.start < :start and b.end > :end" + ORDER_BY_START)
+    List<BookingListRow> findAllByBookerIdAndStartBeforeAndEndAfter(@Param("bookerId") long bookerId,
+                                                                    @Param("start") LocalDateTime start,
+                                                                    @Param("end") LocalDateTime end,
+                                                                    PageRequest pageRequest);
 
-    List<Booking> findAllByItemOwnerIdAndStatus(long owner, BookingStatus status, PageRequest pageRequest);
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.end < :end" + ORDER_BY_START)
+    List<BookingListRow> findAllByBookerIdAndEndBefore(@Param("bookerId") long bookerId,
+                                                       @Param("end") LocalDateTime end,
+                                                       PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.start > :start" + ORDER_BY_START)
+    List<BookingListRow> findAllByBookerIdAndStartAfter(@Param("bookerId") long bookerId,
+                                                        @Param("start") LocalDateTime start,
+                                                        PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.status = :status" + ORDER_BY_START)
+    List<BookingListRow> findAllByBookerIdAndStatus(@Param("bookerId") long bookerId,
+                                                    @Param("status") BookingStatus status,
+                                                    PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.start < :start and b.end > :end" + ORDER_BY_START)
+    List<BookingListRow> findAllByOwnerIdAndStartBeforeAndEndAfter(@Param("ownerId") long ownerId,
+                                                                   @Param("start") LocalDateTime start,
+                                                                   @Param("end") LocalDateTime end,
+                                                                   PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.end < :end" + ORDER_BY_START)
+    List<BookingListRow> findAllByOwnerIdAndEndBefore(@Param("ownerId") long ownerId,
+                                                      @Param("end") LocalDateTime end,
+                                                      PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.start > :start" + ORDER_BY_START)
+    List<BookingListRow> findAllByOwnerIdAndStartAfter(@Param("ownerId") long ownerId,
+                                                       @Param("start") LocalDateTime start,
+                                                       PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.status = :status" + ORDER_BY_START)
+    List<BookingListRow> findAllByOwnerIdAndStatus(@Param("ownerId") long ownerId,
+                                                   @Param("status") BookingStatus status,
+                                                   PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId" + AFTER_CURSOR)
+    List<BookingListRow> findAllByBookerIdAfterCursor(@Param("bookerId") long bookerId,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") long cursorId,
+                                                      PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.start < :now and b.end > :now" + AFTER_CURSOR)
+    List<BookingListRow> findCurrentByBookerIdAfterCursor(@Param("bookerId") long bookerId,
+                                                          @Param("now") LocalDateTime now,
+                                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                                          @Param("cursorId") long cursorId,
+                                                          PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.end < :now" + AFTER_CURSOR)
+    List<BookingListRow> findPastByBookerIdAfterCursor(@Param("bookerId") long bookerId,
+                                                       @Param("now") LocalDateTime now,
+                                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                                       @Param("cursorId") long cursorId,
+                                                       PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.start > :now" + AFTER_CURSOR)
+    List<BookingListRow> findFutureByBookerIdAfterCursor(@Param("bookerId") long bookerId,
+                                                         @Param("now") LocalDateTime now,
+                                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                                         @Param("cursorId") long cursorId,
+                                                         PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.booker.id = :bookerId and b.status = :status" + AFTER_CURSOR)
+    List<BookingListRow> findAllByBookerIdAndStatusAfterCursor(@Param("bookerId") long bookerId,
+                                                               @Param("status") BookingStatus status,
+                                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                                               @Param("cursorId") long cursorId,
+                                                               PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId" + AFTER_CURSOR)
+    List<BookingListRow> findAllByOwnerIdAfterCursor(@Param("ownerId") long ownerId,
+                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                     @Param("cursorId") long cursorId,
+                                                     PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.start < :now and b.end > :now" + AFTER_CURSOR)
+    List<BookingListRow> findCurrentByOwnerIdAfterCursor(@Param("ownerId") long ownerId,
+                                                         @Param("now") LocalDateTime now,
+                                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                                         @Param("cursorId") long cursorId,
+                                                         PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.end < :now" + AFTER_CURSOR)
+    List<BookingListRow> findPastByOwnerIdAfterCursor(@Param("ownerId") long ownerId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") long cursorId,
+                                                      PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.start > :now" + AFTER_CURSOR)
+    List<BookingListRow> findFutureByOwnerIdAfterCursor(@Param("ownerId") long ownerId,
+                                                        @Param("now") LocalDateTime now,
+                                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                                        @Param("cursorId") long cursorId,
+                                                        PageRequest pageRequest);
+
+    @Query(LIST_ROW + "where b.ownerId = :ownerId and b.status = :status" + AFTER_CURSOR)
+    List<BookingListRow> findAllByOwnerIdAndStatusAfterCursor(@Param("ownerId") long ownerId,
+                                                              @Param("status") BookingStatus status,
+                                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                                              @Param("cursorId") long cursorId,
+                                                              PageRequest pageRequest);
+
+    // есть ли у вещи бронирование в одном из статусов, пересекающееся с периодом [start, end)
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
 
     boolean existsByItemIdAndBookerIdAndEndBefore(long itemId, long userId, LocalDateTime now);
+
+    @Query(value = " select n.id as \"id\", n.item_id as \"itemId\", n.booker_id as \"bookerId\", n.is_last as \"last\" " +
+            " from (select b.id, b.item_id, b.booker_id, b.start_date <= :now as is_last, " +
+            "              row_number() over (partition by b.item_id, b.start_date <= :now " +
+            "                                 order by case when b.start_date <= :now then b.end_date end desc, " +
+            "                                          b.start_date asc) as rn " +
+            "       from bookings b " +
+            "       where b.item_id in (:itemIds) and b.status = 'APPROVED') n " +
+            " where n.rn = 1 ", nativeQuery = true)
+    List<NeighbourBooking> findNeighbourBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                 @Param("now") LocalDateTime now);
+
+    @Query(" select b.version as version, b.lastModified as lastModified, b.booker.id as bookerId, " +
+            "        i.owner.id as ownerId, i.version as itemVersion, i.lastModified as itemLastModified " +
+            " from Booking b join b.item i where b.id = :bookingId ")
+    Optional<BookingVersion> findVersionById(@Param("bookingId") long bookingId);
+
+    @Query("select max(b.id) from Booking b")
+    Long findMaxId();
+
+    // переносит items.owner_id в bookings.owner_id для диапазона id, где он пуст или устарел
+    @Transactional
+    @Modifying
+    @Query(" update Booking b set b.ownerId = (select i.owner.id from Item i where i.id = b.item.id) " +
+            " where b.id between :fromId and :toId " +
+            "   and (b.ownerId is null or b.ownerId <> (select i.owner.id from Item i where i.id = b.item.id)) ")
+    int syncOwnerIds(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query(value = " select count(*) from bookings b join items i on i.id = b.item_id " +
+            " where b.owner_id is null or b.owner_id <> i.owner_id ", nativeQuery = true)
+    long countStaleOwnerIds();
+
+    @Query(value = " select b.id from bookings b join items i on i.id = b.item_id " +
+            " where b.owner_id is null or b.owner_id <> i.owner_id order by b.id limit :limit ", nativeQuery = true)
+    List<Long> findStaleOwnerIds(@Param("limit") int limit);
 }
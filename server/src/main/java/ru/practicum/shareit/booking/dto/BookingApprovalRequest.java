@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@SuperBuilder
+public class BookingApprovalRequest {
+    // тот же предел, что проверяет gateway: список уходит в БД одним IN
+    public static final int MAX_BOOKINGS = 100;
+
+    private List<Long> bookingIds;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+import ru.practicum.shareit.booking.BookingStatus;
+
+@Data
+@NoArgsConstructor
+@SuperBuilder
+public class BookingApprovalResult {
+    private Long bookingId;
+    private Long itemId; // вещь изменённого бронирования: по ней gateway сбрасывает кэш карточки
+    private BookingStatus status; // новый статус или null, если бронирование не изменено
+    private String error;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований - ровно то, что попадает в BookingDtoResponse.
+ * Заполняется выражением select new в BookingStorage, без загрузки Booking, вещи и пользователей.
+ */
+@Value
+public class BookingListRow {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    Long itemId;
+    String itemName;
+    Long bookerId;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingVersion {
+    Long getVersion();
+
+    LocalDateTime getLastModified();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getItemVersion(); // в ответе есть название вещи
+
+    LocalDateTime getItemLastModified();
+}
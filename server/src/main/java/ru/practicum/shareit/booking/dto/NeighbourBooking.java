@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface NeighbourBooking {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    Boolean getLast(); // true - последнее бронирование вещи, false - следующее
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.owner;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@SuperBuilder
+public class BookingOwnerConsistency {
+    private boolean consistent;
+    private long staleBookings; // owner_id пуст или не совпадает с items.owner_id
+    private List<Long> staleSample;
+}
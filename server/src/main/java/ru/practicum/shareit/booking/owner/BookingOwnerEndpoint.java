@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.owner;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// /actuator/bookingowner: GET - сверка bookings.owner_id с items.owner_id, POST - исправление расхождений
+@Component
+@Endpoint(id = "bookingowner")
+public class BookingOwnerEndpoint {
+    private final BookingOwnerSync ownerSync;
+
+    public BookingOwnerEndpoint(BookingOwnerSync ownerSync) {
+        this.ownerSync = ownerSync;
+    }
+
+    @ReadOperation
+    public BookingOwnerConsistency verify() {
+        return ownerSync.verify();
+    }
+
+    @WriteOperation
+    public long sync() {
+        return ownerSync.sync();
+    }
+}
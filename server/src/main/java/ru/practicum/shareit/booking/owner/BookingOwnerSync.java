@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.owner;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStorage;
+
+import java.util.List;
+
+/**
+ * Поддерживает bookings.owner_id равным текущему items.owner_id. Существующие строки заполнила миграция V4,
+ * так что sync() запускается явно - POST /actuator/bookingowner, например после смены владельца вещи в базе.
+ * shareit.bookings.owner-backfill.enabled=true (по умолчанию выключено) запускает его и при старте сервера.
+ * Обход идёт диапазонами id, каждый диапазон - отдельная короткая транзакция.
+ */
+@Slf4j
+@Component
+public class BookingOwnerSync {
+    private static final int BATCH_SIZE = 1000;
+    private static final int SAMPLE_SIZE = 100;
+
+    private final BookingStorage bookingStorage;
+    private final boolean backfillEnabled;
+
+    @Autowired
+    public BookingOwnerSync(BookingStorage bookingStorage,
+                            @Value("${shareit.bookings.owner-backfill.enabled:false}") boolean backfillEnabled) {
+        this.bookingStorage = bookingStorage;
+        this.backfillEnabled = backfillEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (backfillEnabled) {
+            sync();
+        }
+    }
+
+    public long sync() {
+        Long maxId = bookingStorage.findMaxId();
+        long updated = 0;
+        if (maxId != null) {
+            for (long fromId = 0; fromId <= maxId; fromId += BATCH_SIZE) {
+                updated += bookingStorage.syncOwnerIds(fromId, fromId + BATCH_SIZE - 1);
+            }
+        }
+        if (updated > 0) {
+            log.info("Заполнен owner_id у {} бронирований", updated);
+        }
+        return updated;
+    }
+
+    public BookingOwnerConsistency verify() {
+        long stale = bookingStorage.countStaleOwnerIds();
+        BookingOwnerConsistency consistency = BookingOwnerConsistency.builder()
+                .consistent(stale == 0)
+                .staleBookings(stale)
+                .staleSample(stale == 0 ? List.of() : bookingStorage.findStaleOwnerIds(SAMPLE_SIZE))
+                .build();
+        if (!consistency.isConsistent()) {
+            log.warn("owner_id бронирований расходится с владельцами вещей: {}", consistency);
+        }
+        return consistency;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Фабрика регионов кэша второго уровня со своим CacheManager на каждую SessionFactory.
+ * Стандартная jcache берёт менеджер провайдера по умолчанию - он один на класслоадер, и несколько
+ * контекстов Spring (в тестах - каждый со своей базой H2) делили бы регионы users и items
+ * с чужими записями. Настройки регионов по-прежнему читаются из application.conf.
+ */
+public class IsolatedJCacheRegionFactory extends JCacheRegionFactory {
+    private final URI uri = URI.create("shareit-hibernate-" + UUID.randomUUID());
+
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map properties) {
+        return uri;
+    }
+}
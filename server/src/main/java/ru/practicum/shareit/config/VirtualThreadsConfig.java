@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Режим shareit.threads.virtual=true: запросы Tomcat выполняются в виртуальных потоках (JDK 21+).
+ * Одновременных обращений к БД всё равно не больше, чем соединений в пуле Hikari, а чтобы ожидание
+ * в JDBC не закрепляло (pin) поток-носитель, драйвер PostgreSQL и HikariCP взяты в версиях
+ * на ReentrantLock вместо synchronized (см. server/pom.xml). Закрепления видны с -Djdk.tracePinnedThreads=short.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Запросы Tomcat обрабатываются в виртуальных потоках");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // сборка совместима с JDK 11, поэтому метод JDK 21 вызывается через рефлексию
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "Для shareit.threads.virtual=true нужен JDK 21+, запущено на " + Runtime.version(), e);
+        }
+    }
+}
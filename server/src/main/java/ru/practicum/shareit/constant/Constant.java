@@ -8,6 +8,6 @@ import org.springframework.data.domain.Sort;
 @UtilityClass
 public class Constant {
     public static final String OWNER_ID = "X-Sharer-User-Id"; // имя заголовка с id пользователя, отправившего запрос
-    public static final Sort SORT_BY_START_DESC = Sort.by(Sort.Direction.DESC, "start"); // сортировка букинга
-    public static final Sort SORT_BY_CREATED_DESC = Sort.by(Sort.Direction.DESC, "created"); // сортировка реквестов
+    public static final String NEXT_CURSOR = "X-Next-Cursor"; // имя заголовка с курсором следующей страницы
+    public static final Sort SORT_BY_CREATED_DESC = Sort.by(Sort.Direction.DESC, "created", "id"); // сортировка реквестов
 }
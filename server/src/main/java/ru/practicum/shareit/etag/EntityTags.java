@@ -0,0 +1,20 @@
+package ru.practicum.shareit.etag;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Сильный ETag из частей состояния ответа: "item/1/3/2023-10-01T10:00:00.123456".
+ * Части не хешируются, поэтому разные состояния не могут дать одинаковый ETag.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(Object... parts) {
+        return Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("/", "\"", "\""));
+    }
+}
@@ -2,14 +2,24 @@ package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.Item;
+
+import java.util.Map;
 
 @RestControllerAdvice
 @Slf4j
 public class ExceptionApiHandler {
+    // имя сущности в ответе клиенту: полное имя класса раскрывало бы устройство сервера
+    private static final Map<String, String> ENTITY_NAMES = Map.of(
+            Booking.class.getName(), "Бронирование",
+            Item.class.getName(), "Вещь");
+
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorMessage handleNotFoundException(RuntimeException ex) {
@@ -26,6 +36,15 @@ public class ExceptionApiHandler {
         return new ErrorMessage(message, ex.getCause(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorMessage handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        String message = String.format("%s с id %s: данные изменены другим запросом, повторите попытку",
+                entityName(ex.getPersistentClassName()), ex.getIdentifier());
+        log.info("Получен статус 409: {}, {}", ex.getMessage(), ex.getStackTrace());
+        return new ErrorMessage(message, null, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(UnsupportedOperationException.class)
     @ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
     public ErrorMessage handleUnsupportedOperationException(RuntimeException ex) {
@@ -50,6 +69,14 @@ public class ExceptionApiHandler {
         return new ErrorMessage(message, ex.getCause(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorMessage handleValidationException(ValidationException ex) {
+        String message = ex.getMessage();
+        log.info("Получен статус 400: {}, {}", ex.getMessage(), ex.getStackTrace());
+        return new ErrorMessage(message, ex.getCause(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(Throwable.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorMessage handleUnhandledException(Throwable ex) {
@@ -57,4 +84,12 @@ public class ExceptionApiHandler {
         log.info("Получен статус 500: {}, {}", ex.getMessage(), ex.getStackTrace());
         return new ErrorMessage(message, ex.getCause(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    private static String entityName(String persistentClassName) {
+        if (persistentClassName == null) {
+            return "Объект";
+        }
+        return ENTITY_NAMES.getOrDefault(persistentClassName,
+                persistentClassName.substring(persistentClassName.lastIndexOf('.') + 1));
+    }
 }
@@ -2,14 +2,18 @@ package ru.practicum.shareit.item;
 
 import lombok.*;
 import lombok.experimental.SuperBuilder;
-import org.hibernate.annotations.JoinFormula;
-import ru.practicum.shareit.booking.Booking;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 import ru.practicum.shareit.user.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -28,27 +32,20 @@ public class Item {
     @Column(name = "is_available", nullable = false)
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User owner;
 
     @Column(name = "request_id")
     private Long requestId;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinFormula("(SELECT b.id FROM bookings b " +
-            " WHERE b.item_id = id " +
-            " AND b.start_date > LOCALTIMESTAMP(2) " +
-            " AND b.status = 'APPROVED' " +
-            " ORDER BY b.start_date ASC LIMIT 1)")
-    private Booking nextBooking;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinFormula("(SELECT b.id FROM bookings b " +
-            " WHERE b.item_id = id " +
-            " AND b.start_date <= LOCALTIMESTAMP(2) " +
-            " AND b.status = 'APPROVED' " +
-            " ORDER BY b.end_date DESC LIMIT 1)")
-    private Booking lastBooking;
+    @UpdateTimestamp
+    @Column(name = "last_modified", nullable = false)
+    private LocalDateTime lastModified;
 }
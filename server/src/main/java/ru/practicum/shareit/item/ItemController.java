@@ -2,15 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.constant.Constant;
 import ru.practicum.shareit.item.comment.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.CommentDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -41,8 +46,19 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getItem(@RequestHeader(Constant.OWNER_ID) long userId,
-                           @PathVariable long itemId) {
+                           @PathVariable long itemId,
+                           WebRequest request,
+                           HttpServletResponse response) {
         log.info("Получен запрос на получение вещи с id {} от пользователя {}", itemId, userId);
+        // ETag считается до чтения вещи: запись между ними даст новое тело со старым ETag, но не наоборот
+        Optional<String> etag = itemService.getItemEtag(itemId, userId);
+        if (etag.filter(ItemService::isTimeDependent).isPresent()) {
+            // последнее и следующее бронирования владельца сдвигаются со временем - кэш gateway не отдаёт их без проверки
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        if (etag.map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return itemService.getItem(itemId, userId);
     }
 
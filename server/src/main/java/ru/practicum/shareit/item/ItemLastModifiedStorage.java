@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Отметка items.last_modified об изменениях, которые видны в ответе по вещи, но не меняют её строку:
+ * комментарий, подтверждение бронирования, новое имя автора комментария.
+ */
+public interface ItemLastModifiedStorage {
+    int touch(Collection<Long> ids, LocalDateTime now);
+
+    int touchCommentedBy(long authorId, LocalDateTime now);
+}
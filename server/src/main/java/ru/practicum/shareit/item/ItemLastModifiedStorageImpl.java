@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Обновление идёт мимо Hibernate: массовый update через JPQL сбрасывает весь регион Item
+ * в кэше второго уровня, а last_modified читает только запрос ETag (ItemStorage.findVersionById),
+ * не сущность. У закэшированной вещи это поле может отставать - при её сохранении
+ * @UpdateTimestamp всё равно выставит новое время.
+ */
+public class ItemLastModifiedStorageImpl implements ItemLastModifiedStorage {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ItemLastModifiedStorageImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int touch(Collection<Long> ids, LocalDateTime now) {
+        return jdbcTemplate.update("update items set last_modified = :now where id in (:ids)",
+                new MapSqlParameterSource("now", now).addValue("ids", ids));
+    }
+
+    @Override
+    public int touchCommentedBy(long authorId, LocalDateTime now) {
+        return jdbcTemplate.update("update items set last_modified = :now " +
+                        "where id in (select c.item_id from comments c where c.author_id = :authorId)",
+                new MapSqlParameterSource("now", now).addValue("authorId", authorId));
+    }
+}
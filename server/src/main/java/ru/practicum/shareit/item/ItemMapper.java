@@ -1,7 +1,7 @@
 package ru.practicum.shareit.item;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.item.comment.CommentDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoForBooking;
@@ -33,14 +33,19 @@ public class ItemMapper {
     }
 
     public ItemDto toItemDto(Item item, List<CommentDtoResponse> comments) {
+        return toItemDto(item, null, null, comments);
+    }
+
+    public ItemDto toItemDto(Item item, BookingForItemDto lastBooking, BookingForItemDto nextBooking,
+                             List<CommentDtoResponse> comments) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequestId())
-                .lastBooking(BookingMapper.toBookingForItemDto(item.getLastBooking()))
-                .nextBooking(BookingMapper.toBookingForItemDto(item.getNextBooking()))
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
                 .comments(comments)
                 .build();
     }
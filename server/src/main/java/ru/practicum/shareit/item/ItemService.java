@@ -4,14 +4,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.annotation.RetryOnOptimisticLock;
+import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.NeighbourBooking;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.BookingStatusException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.pagination.Paginator;
-import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestStorage;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserStorage;
@@ -24,34 +30,42 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 public class ItemService {
+    private static final String OWNER_VIEW = "owner";
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
     private final BookingStorage bookingStorage;
     private final CommentStorage commentStorage;
     private final ItemRequestStorage requestStorage;
+    private final ItemSearchEngine searchEngine;
+    private final ItemSearchIndex searchIndex;
 
 
     @Autowired
     public ItemService(ItemStorage itemStorage, UserStorage userStorage,
-                       BookingStorage bookingStorage, CommentStorage commentStorage, ItemRequestStorage itemRequestStorage) {
+                       BookingStorage bookingStorage, CommentStorage commentStorage, ItemRequestStorage itemRequestStorage,
+                       ItemSearchEngine searchEngine, ItemSearchIndex searchIndex) {
         this.itemStorage = itemStorage;
         this.userStorage = userStorage;
         this.bookingStorage = bookingStorage;
         this.commentStorage = commentStorage;
         this.requestStorage = itemRequestStorage;
+        this.searchEngine = searchEngine;
+        this.searchIndex = searchIndex;
     }
 
     @Transactional
     public ItemDtoShort createItem(long userId, ItemDtoShort item) {
         User user = checkUserId(userId);
         if (item.getRequestId() != null) {
-            checkRequestId(item.getRequestId());
+            checkRequestExists(item.getRequestId());
         }
         Item createdItem = itemStorage.save(ItemMapper.toItem(item, user));
+        searchIndex.onCreated(createdItem);
         log.info("Пользователь с id {} создал вещь {}", userId, createdItem);
         return ItemMapper.toItemDtoShort(createdItem);
     }
 
+    @RetryOnOptimisticLock
     @Transactional
     public ItemDtoShort updateItem(long userId, long itemId, ItemDtoShort item) {
         Item expectedItem = checkItemId(itemId);
@@ -59,6 +73,9 @@ public class ItemService {
             throw new NotFoundException(
                     String.format("Пользователь с id %d не является владельцем вещи с id %d", userId, itemId));
         }
+        String oldName = expectedItem.getName();
+        String oldDescription = expectedItem.getDescription();
+        boolean oldAvailable = expectedItem.getAvailable();
         if (item.getName() != null && !item.getName().isBlank()) {
             expectedItem.setName(item.getName());
         }
@@ -69,6 +86,7 @@ public class ItemService {
             expectedItem.setAvailable(item.getAvailable());
         }
         itemStorage.save(expectedItem);
+        searchIndex.onUpdated(itemId, oldName, oldDescription, oldAvailable, expectedItem);
         log.info("Пользователь с id {} обновил вещь с id {}", userId, itemId);
         return ItemMapper.toItemDtoShort(expectedItem);
     }
@@ -79,15 +97,32 @@ public class ItemService {
         List<CommentDtoResponse> comments = commentStorage.findAllByItemId(itemId)
                 .stream().map(CommentMapper::toCommentDtoResponse).collect(Collectors.toList());
         if (item.getOwner().getId() == userId) {
+            Map<Boolean, Map<Long, BookingForItemDto>> bookings = findNeighbourBookings(Set.of(itemId));
             log.info("Получена вещь с id {}", itemId);
-            return ItemMapper.toItemDto(item, comments);
+            return ItemMapper.toItemDto(item, bookings.get(true).get(itemId), bookings.get(false).get(itemId), comments);
         }
-        item.setLastBooking(null);
-        item.setNextBooking(null);
         log.info("Получена вещь с id {}", itemId);
         return ItemMapper.toItemDto(item, comments);
     }
 
+    /**
+     * ETag ответа getItem одним запросом, без загрузки вещи, комментариев и бронирований.
+     * Владельцу видны последнее и следующее бронирования - они сдвигаются со временем без записи в БД,
+     * поэтому в его ETag входит начало ближайшего подтверждённого бронирования.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getItemEtag(long itemId, long userId) {
+        return itemStorage.findVersionById(itemId, LocalDateTime.now())
+                .map(v -> v.getOwnerId() == userId
+                        ? EntityTags.of("item", itemId, v.getVersion(), v.getLastModified(), OWNER_VIEW, v.getNextStart())
+                        : EntityTags.of("item", itemId, v.getVersion(), v.getLastModified()));
+    }
+
+    // карточка владельца меняется со временем без записи в БД: кэш должен перепроверять её ETag при каждом чтении
+    public static boolean isTimeDependent(String etag) {
+        return etag.contains("/" + OWNER_VIEW + "/");
+    }
+
     @Transactional(readOnly = true)
     public List<ItemDto> getItemsByUser(long userId, Integer from, Integer size) {
         Map<Long, Item> itemMap = itemStorage.findAllItemsByOwnerId(userId, Paginator.simplePage(from, size))
@@ -98,9 +133,14 @@ public class ItemService {
                 .stream()
                 .collect(Collectors.groupingBy(Comment::getItemId));
 
+        Map<Boolean, Map<Long, BookingForItemDto>> bookings = findNeighbourBookings(itemMap.keySet());
+
         List<ItemDto> itemsByUser = itemMap.values()
                 .stream()
-                .map(i -> addComments(i, comments.getOrDefault(i.getId(), List.of())))
+                .map(i -> ItemMapper.toItemDto(i,
+                        bookings.get(true).get(i.getId()),
+                        bookings.get(false).get(i.getId()),
+                        toCommentDtoResponses(comments.getOrDefault(i.getId(), List.of()))))
                 .collect(Collectors.toList());
 
         log.info("Получен список из {} вещей для пользователя с id {}", itemsByUser.size(), userId);
@@ -109,7 +149,9 @@ public class ItemService {
 
     @Transactional(readOnly = true)
     public List<ItemDtoShort> searchItems(String query, Integer from, Integer size) {
-        List<ItemDtoShort> foundItems = itemStorage.search(query, Paginator.simplePage(from, size)).stream()
+        List<ItemDtoShort> foundItems = searchIndex.search(query, from, size)
+                .orElseGet(() -> searchEngine.search(query, Paginator.simplePage(from, size)))
+                .stream()
                 .map(ItemMapper::toItemDtoShort).collect(Collectors.toList());
         log.info("Получен список из {} вещей по запросу '{}'", foundItems.size(), query);
         return foundItems;
@@ -122,6 +164,7 @@ public class ItemService {
             throw new BookingStatusException("Нельзя оставить комментарий");
         }
         Comment comment = commentStorage.save(CommentMapper.toComment(commentDto, user, itemId));
+        itemStorage.touch(List.of(itemId), LocalDateTime.now());
         log.info("Получен комментарий от пользователя {}", userId);
         return CommentMapper.toCommentDtoResponse(comment);
     }
@@ -136,14 +179,24 @@ public class ItemService {
                 new NotFoundException(String.format("Вещь с id %d не существует", itemId)));
     }
 
-    private ItemDto addComments(Item item, List<Comment> comments) {
-        List<CommentDtoResponse> commentList = comments
-                .stream().map(CommentMapper::toCommentDtoResponse).collect(Collectors.toList());
-        return ItemMapper.toItemDto(item, commentList);
+    private List<CommentDtoResponse> toCommentDtoResponses(List<Comment> comments) {
+        return comments.stream().map(CommentMapper::toCommentDtoResponse).collect(Collectors.toList());
+    }
+
+    // последние (true) и следующие (false) подтверждённые бронирования по id вещей - одним запросом
+    private Map<Boolean, Map<Long, BookingForItemDto>> findNeighbourBookings(Set<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of(true, Map.of(), false, Map.of());
+        }
+        return bookingStorage.findNeighbourBookings(itemIds, LocalDateTime.now())
+                .stream()
+                .collect(Collectors.partitioningBy(NeighbourBooking::getLast,
+                        Collectors.toMap(NeighbourBooking::getItemId, BookingMapper::toBookingForItemDto)));
     }
 
-    private ItemRequest checkRequestId(long reqId) {
-        return requestStorage.findById(reqId).orElseThrow(() ->
-                new NotFoundException(String.format("Запрос с id %d не существует", reqId)));
+    private void checkRequestExists(long reqId) {
+        if (!requestStorage.existsById(reqId)) {
+            throw new NotFoundException(String.format("Запрос с id %d не существует", reqId));
+        }
     }
 }
@@ -3,20 +3,51 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
+import ru.practicum.shareit.item.dto.ItemSearchText;
+import ru.practicum.shareit.item.dto.ItemVersion;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
-public interface ItemStorage extends JpaRepository<Item, Long> {
+public interface ItemStorage extends JpaRepository<Item, Long>, ItemLastModifiedStorage {
     @Query(" select i from Item i " +
             " where i.available is true and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%'))) ")
+            " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            " order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id ")
     List<Item> search(String text, PageRequest pageRequest);
 
-    List<Item> findAllItemsByOwnerId(long userId, PageRequest pageRequest);
+    @Query(value = " select * from items i " +
+            " where i.is_available and (i.name ilike concat('%', ?1, '%') " +
+            " or i.description ilike concat('%', ?1, '%')) " +
+            " order by greatest(similarity(i.name, ?1), similarity(i.description, ?1)) desc, i.id ", nativeQuery = true)
+    List<Item> searchByTrigram(String text, PageRequest pageRequest);
+
+    // кэш запросов: id вещей, сами вещи - из кэша сущностей; сбрасывается любой записью в items через Hibernate.
+    // JPQL вместо производного метода: тот присоединяет users через left join и читает items целиком мимо idx_items_owner
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+    @Query("select i from Item i where i.owner.id = :userId order by i.id")
+    List<Item> findAllItemsByOwnerId(@Param("userId") long userId, PageRequest pageRequest);
 
     List<ItemDtoForRequest> findAllByRequestIdIn(Set<Long> requestId);
 
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     List<ItemDtoForRequest> findAllByRequestId(long requestId);
+
+    List<ItemSearchText> findAllByAvailableIsTrueAndIdGreaterThanOrderById(long id, PageRequest pageRequest);
+
+    Optional<ItemSearchText> findSearchTextByIdAndAvailableIsTrue(long id);
+
+    // один запрос по первичному ключу и idx_bookings_item_status_start
+    @Query(" select i.version as version, i.lastModified as lastModified, i.owner.id as ownerId, " +
+            "        (select min(b.start) from Booking b " +
+            "         where b.item.id = i.id and b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "           and b.start > :now) as nextStart " +
+            " from Item i where i.id = :itemId ")
+    Optional<ItemVersion> findVersionById(@Param("itemId") long itemId, @Param("now") LocalDateTime now);
 }
@@ -9,10 +9,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = Comment.WITH_AUTHOR, attributeNodes = @NamedAttributeNode("author"))
 @Data
 @SuperBuilder
 @NoArgsConstructor
 public class Comment {
+    // карточка и список вещей: в ответе имя автора
+    public static final String WITH_AUTHOR = "Comment.withAuthor";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,9 +27,10 @@ public class Comment {
     @Column(name = "item_id", nullable = false)
     private Long itemId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User author;
 
     @Column(name = "created_date", nullable = false)
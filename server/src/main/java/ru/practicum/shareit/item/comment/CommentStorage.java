@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.comment;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -7,7 +8,9 @@ import java.util.Set;
 
 public interface CommentStorage extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findAllByItemId(long item);
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findAllByItemIdIn(Set<Long> itemId);
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+// всё, от чего зависит ответ GET /items/{id}, кроме самих данных
+public interface ItemVersion {
+    Long getVersion();
+
+    LocalDateTime getLastModified();
+
+    Long getOwnerId();
+
+    LocalDateTime getNextStart(); // начало ближайшего подтверждённого бронирования - с ним меняются last/next
+}
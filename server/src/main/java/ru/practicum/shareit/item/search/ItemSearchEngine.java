@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по подстроке в названии или описании.
+ * Реализация выбирается свойством shareit.search.engine: like (по умолчанию) или trigram.
+ */
+public interface ItemSearchEngine {
+    List<Item> search(String text, PageRequest pageRequest);
+}
@@ -0,0 +1,361 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.dto.ItemSearchText;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс триграмм названия и описания доступных вещей: триграмма -> отсортированные id.
+ * Включается свойством shareit.search.index.enabled, строится из таблицы items при старте
+ * и обновляется из ItemService после коммита. Запросы короче трёх символов индекс не обслуживает.
+ * После коммита вещь перечитывается из БД под блокировкой записи: колбэки параллельных транзакций
+ * могут прийти не в порядке коммитов, но каждый кладёт в индекс последнее закоммиченное состояние.
+ * Порядок выдачи - как у LikeItemSearchEngine (совпадение в названии, затем id), чтобы страницы не зависели
+ * от длины запроса и флага индекса; с shareit.search.engine=trigram (порядок по сходству) индекс не включается.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MIN_FETCH_BATCH_SIZE = 20;
+    private static final int MAX_FETCH_BATCH_SIZE = 500;
+    private static final int SAMPLE_SIZE = 100;
+
+    private final ItemStorage itemStorage;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> pendingChanges = new HashSet<>();
+    private Postings postings = new Postings();
+    private boolean loading;
+    private volatile boolean ready;
+
+    @Autowired
+    public ItemSearchIndex(ItemStorage itemStorage,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled,
+                           @Value("${shareit.search.engine:like}") String engine) {
+        this.itemStorage = itemStorage;
+        this.enabled = enabled && "like".equals(engine);
+        if (enabled && !this.enabled) {
+            log.warn("Индекс поиска вещей не включён: его порядок выдачи не совпадает с shareit.search.engine={}", engine);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Postings loaded = readFromStorage();
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(id -> refresh(loaded, id));
+            pendingChanges.clear();
+            postings = loaded;
+            loading = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс поиска вещей загружен: {} вещей, {} триграмм", loaded.texts.size(), loaded.tokens.size());
+    }
+
+    public void onCreated(Item item) {
+        if (!enabled || !item.getAvailable()) {
+            return;
+        }
+        afterCommit(item.getId());
+    }
+
+    public void onUpdated(long id, String oldName, String oldDescription, boolean oldAvailable, Item item) {
+        if (!enabled) {
+            return;
+        }
+        if (oldAvailable == item.getAvailable() && oldName.equals(item.getName())
+                && oldDescription.equals(item.getDescription())) {
+            return;
+        }
+        afterCommit(id);
+    }
+
+    /**
+     * Страница найденных вещей (сначала совпадения в названии, затем по id) или пустой Optional, если индекс
+     * не может ответить (выключен, ещё строится или запрос слишком короткий) и нужен обычный поиск.
+     * Кандидаты из индекса проверяются по загруженным строкам, смещение считается как в Paginator.simplePage.
+     */
+    public Optional<List<Item>> search(String text, int from, int size) {
+        String needle = normalize(text);
+        if (!ready || needle.length() < GRAM) {
+            return Optional.empty();
+        }
+        long[] candidates;
+        lock.readLock().lock();
+        try {
+            candidates = postings.nameMatchesFirst(postings.find(grams(needle)), needle);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int skip = from / size * size;
+        int batchSize = Math.max(MIN_FETCH_BATCH_SIZE, Math.min(MAX_FETCH_BATCH_SIZE, size * 2));
+        List<Item> page = new ArrayList<>(size);
+        for (int start = 0; start < candidates.length && page.size() < size; start += batchSize) {
+            List<Long> batch = Arrays.stream(candidates, start, Math.min(candidates.length, start + batchSize))
+                    .boxed()
+                    .collect(Collectors.toList());
+            Map<Long, Item> items = itemStorage.findAllById(batch).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : batch) {
+                Item item = items.get(id);
+                if (item == null || !matches(item, needle)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                page.add(item);
+                if (page.size() == size) {
+                    break;
+                }
+            }
+        }
+        return Optional.of(page);
+    }
+
+    public ItemSearchIndexFootprint footprint() {
+        lock.readLock().lock();
+        try {
+            return ItemSearchIndexFootprint.builder()
+                    .enabled(enabled)
+                    .ready(ready)
+                    .items(postings.texts.size())
+                    .tokens(postings.tokens.size())
+                    .postings(postings.tokens.values().stream().mapToLong(LongPostingList::size).sum())
+                    .estimatedBytes(postings.memoryBytes())
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // перечитывает таблицу items и сравнивает с текущим индексом по каждой триграмме
+    public ItemSearchIndexConsistency verify() {
+        Postings expected = readFromStorage();
+        Set<Long> missing = new TreeSet<>();
+        Set<Long> stale = new TreeSet<>();
+        lock.readLock().lock();
+        try {
+            Set<String> tokens = new HashSet<>(expected.tokens.keySet());
+            tokens.addAll(postings.tokens.keySet());
+            for (String token : tokens) {
+                LongPostingList expectedIds = expected.tokens.getOrDefault(token, new LongPostingList());
+                LongPostingList actualIds = postings.tokens.getOrDefault(token, new LongPostingList());
+                collectAbsent(expectedIds, actualIds, missing);
+                collectAbsent(actualIds, expectedIds, stale);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        ItemSearchIndexConsistency consistency = ItemSearchIndexConsistency.builder()
+                .consistent(missing.isEmpty() && stale.isEmpty())
+                .missingItems(missing.size())
+                .staleItems(stale.size())
+                .missingSample(missing.stream().limit(SAMPLE_SIZE).collect(Collectors.toList()))
+                .staleSample(stale.stream().limit(SAMPLE_SIZE).collect(Collectors.toList()))
+                .build();
+        if (!consistency.isConsistent()) {
+            log.warn("Индекс поиска вещей расходится с БД: {}", consistency);
+        }
+        return consistency;
+    }
+
+    private void afterCommit(long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(id);
+                }
+            });
+        } else {
+            apply(id);
+        }
+    }
+
+    // чтение из БД под блокировкой записи: два колбэка одной вещи не перечитают её наперегонки,
+    // и последний по времени кладёт состояние не старше последнего коммита
+    private void apply(long id) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pendingChanges.add(id);
+            } else if (ready) {
+                refresh(postings, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refresh(Postings target, long id) {
+        target.remove(id);
+        itemStorage.findSearchTextByIdAndAvailableIsTrue(id)
+                .ifPresent(item -> target.add(id, item.getName(), item.getDescription()));
+    }
+
+    private Postings readFromStorage() {
+        Postings loaded = new Postings();
+        long lastId = 0;
+        List<ItemSearchText> batch;
+        do {
+            batch = itemStorage.findAllByAvailableIsTrueAndIdGreaterThanOrderById(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (ItemSearchText item : batch) {
+                loaded.add(item.getId(), item.getName(), item.getDescription());
+                lastId = item.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return loaded;
+    }
+
+    private static void collectAbsent(LongPostingList source, LongPostingList target, Set<Long> result) {
+        for (long id : source.toArray()) {
+            if (!target.contains(id)) {
+                result.add(id);
+            }
+        }
+    }
+
+    private static boolean matches(Item item, String needle) {
+        return item.getAvailable()
+                && (normalize(item.getName()).contains(needle) || normalize(item.getDescription()).contains(needle));
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class Postings {
+        private final Map<String, LongPostingList> tokens = new HashMap<>();
+        // проиндексированный текст вещи: по нему снимаются её триграммы, что бы ни лежало сейчас в БД
+        private final Map<Long, IndexedText> texts = new HashMap<>();
+
+        void add(long id, String name, String description) {
+            texts.put(id, new IndexedText(name, description));
+            for (String gram : textGrams(name, description)) {
+                tokens.computeIfAbsent(gram, g -> new LongPostingList()).add(id);
+            }
+        }
+
+        void remove(long id) {
+            IndexedText text = texts.remove(id);
+            if (text == null) {
+                return;
+            }
+            for (String gram : textGrams(text.name, text.description)) {
+                LongPostingList ids = tokens.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        tokens.remove(gram);
+                    }
+                }
+            }
+        }
+
+        long[] find(Set<String> grams) {
+            List<LongPostingList> lists = new ArrayList<>();
+            for (String gram : grams) {
+                LongPostingList ids = tokens.get(gram);
+                if (ids == null) {
+                    return new long[0];
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(LongPostingList::size));
+            long[] result = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = LongPostingList.intersect(result, lists.get(i));
+            }
+            return result;
+        }
+
+        // устойчивое разбиение отсортированных id: как order by в ItemStorage.search
+        long[] nameMatchesFirst(long[] ids, String needle) {
+            long[] ordered = new long[ids.length];
+            int nameMatches = 0;
+            for (long id : ids) {
+                if (normalize(texts.get(id).name).contains(needle)) {
+                    ordered[nameMatches++] = id;
+                }
+            }
+            int next = nameMatches;
+            for (long id : ids) {
+                if (!normalize(texts.get(id).name).contains(needle)) {
+                    ordered[next++] = id;
+                }
+            }
+            return ordered;
+        }
+
+        // строки-ключи (заголовок, массив символов), записи HashMap и сами списки id;
+        // у текстов вещей - запись HashMap, Long, IndexedText и две строки
+        long memoryBytes() {
+            long bytes = 16L * tokens.size() + 16L * texts.size();
+            for (Map.Entry<String, LongPostingList> entry : tokens.entrySet()) {
+                bytes += 32 + 40 + 2L * entry.getKey().length() + entry.getValue().memoryBytes();
+            }
+            for (IndexedText text : texts.values()) {
+                bytes += 32 + 16 + 24 + 80 + 2L * (text.name.length() + text.description.length());
+            }
+            return bytes;
+        }
+
+        private static Set<String> textGrams(String name, String description) {
+            Set<String> grams = grams(normalize(name));
+            grams.addAll(grams(normalize(description)));
+            return grams;
+        }
+    }
+
+    private static class IndexedText {
+        private final String name;
+        private final String description;
+
+        IndexedText(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+    }
+}
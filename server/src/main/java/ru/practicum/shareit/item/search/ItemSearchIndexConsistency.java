@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@SuperBuilder
+public class ItemSearchIndexConsistency {
+    private boolean consistent;
+    private int missingItems; // есть в БД, но не найдутся через индекс
+    private int staleItems; // остались в индексе, но в БД изменились или недоступны
+    private List<Long> missingSample;
+    private List<Long> staleSample;
+}
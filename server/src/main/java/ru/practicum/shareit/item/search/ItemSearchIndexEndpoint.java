@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// /actuator/itemsearchindex: GET - занимаемая индексом память, POST - сверка индекса с таблицей items
+@Component
+@Endpoint(id = "itemsearchindex")
+public class ItemSearchIndexEndpoint {
+    private final ItemSearchIndex searchIndex;
+
+    public ItemSearchIndexEndpoint(ItemSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @ReadOperation
+    public ItemSearchIndexFootprint footprint() {
+        return searchIndex.footprint();
+    }
+
+    @WriteOperation
+    public ItemSearchIndexConsistency verify() {
+        return searchIndex.verify();
+    }
+}
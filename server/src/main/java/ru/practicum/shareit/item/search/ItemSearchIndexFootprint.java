@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@Data
+@NoArgsConstructor
+@SuperBuilder
+public class ItemSearchIndexFootprint {
+    private boolean enabled;
+    private boolean ready;
+    private int items; // проиндексированные доступные вещи
+    private int tokens; // различные триграммы
+    private long postings; // суммарная длина всех списков id
+    private long estimatedBytes;
+}
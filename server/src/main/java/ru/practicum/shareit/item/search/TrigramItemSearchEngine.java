@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+
+import java.util.List;
+
+/**
+ * Поиск для PostgreSQL: ILIKE по GIN-индексам pg_trgm (schema-postgresql.sql),
+ * результаты упорядочены по триграммному сходству с запросом.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "trigram")
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private final ItemStorage itemStorage;
+
+    @Autowired
+    public TrigramItemSearchEngine(ItemStorage itemStorage) {
+        this.itemStorage = itemStorage;
+    }
+
+    @Override
+    public List<Item> search(String text, PageRequest pageRequest) {
+        return itemStorage.searchByTrigram(text, pageRequest);
+    }
+}
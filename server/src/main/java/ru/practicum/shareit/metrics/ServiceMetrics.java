@@ -0,0 +1,144 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStateStatus;
+import ru.practicum.shareit.exception.BookingStatusException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.util.Arrays;
+
+/**
+ * Таймеры публичных методов BookingService, ItemService, ItemRequestService и UserService:
+ * <ul>
+ *     <li>shareit.service - каждый вызов, теги service, method, outcome;</li>
+ *     <li>shareit.service.bookings - списки бронирований, дополнительно role (booker/owner), state
+ *     и page (offset/cursor);</li>
+ *     <li>shareit.service.search - поиск вещей с длиной запроса text_length.</li>
+ * </ul>
+ * Счётчики вызовов и ошибок - count этих же таймеров по outcome (в Prometheus - *_count).
+ * Аспект снаружи @Transactional и @RetryOnOptimisticLock: время включает коммит и все повторы,
+ * outcome - результат последней попытки в терминах ответа ExceptionApiHandler.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetrics {
+    static final String SERVICE_TIMER = "shareit.service";
+    static final String BOOKINGS_TIMER = "shareit.service.bookings";
+    static final String SEARCH_TIMER = "shareit.service.search";
+    private static final String UNKNOWN_STATE = "UNKNOWN";
+    // верхние границы длины запроса; state и длина - ограниченные наборы значений, иначе теги разрастутся
+    private static final int[] TEXT_LENGTHS = {2, 5, 10, 20};
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public ServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Pointcut("execution(public * ru.practicum.shareit.booking.BookingService.*(..)) "
+            + "|| execution(public * ru.practicum.shareit.item.ItemService.*(..)) "
+            + "|| execution(public * ru.practicum.shareit.request.ItemRequestService.*(..)) "
+            + "|| execution(public * ru.practicum.shareit.user.UserService.*(..))")
+    void serviceMethod() {
+    }
+
+    @Around("serviceMethod()")
+    public Object timeService(ProceedingJoinPoint call) throws Throwable {
+        return timed(call, SERVICE_TIMER, Tags.of(
+                "service", call.getSignature().getDeclaringType().getSimpleName(),
+                "method", call.getSignature().getName()));
+    }
+
+    // списки бронирований: (userId, state, страница или курсор, size)
+    @Around("execution(public * ru.practicum.shareit.booking.BookingService"
+            + ".getSortBookingByUser*(long, String, ..))")
+    public Object timeBookerList(ProceedingJoinPoint call) throws Throwable {
+        return timed(call, BOOKINGS_TIMER, bookingListTags("booker", call));
+    }
+
+    @Around("execution(public * ru.practicum.shareit.booking.BookingService"
+            + ".getSortBookingByOwner*(long, String, ..))")
+    public Object timeOwnerList(ProceedingJoinPoint call) throws Throwable {
+        return timed(call, BOOKINGS_TIMER, bookingListTags("owner", call));
+    }
+
+    @Around("execution(public * ru.practicum.shareit.item.ItemService.searchItems(String, ..))")
+    public Object timeSearch(ProceedingJoinPoint call) throws Throwable {
+        return timed(call, SEARCH_TIMER, Tags.of("text_length", textLength((String) call.getArgs()[0])));
+    }
+
+    static String outcome(Throwable ex) {
+        if (ex instanceof NotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof ConflictException || ex instanceof ObjectOptimisticLockingFailureException) {
+            return "conflict";
+        }
+        if (ex instanceof BookingStatusException || ex instanceof ValidationException) {
+            return "bad_request";
+        }
+        return "error";
+    }
+
+    static String state(String state) {
+        return Arrays.stream(BookingStateStatus.values())
+                .map(Enum::name)
+                .filter(name -> name.equals(state))
+                .findFirst()
+                .orElse(UNKNOWN_STATE);
+    }
+
+    static String textLength(String text) {
+        int length = text == null ? 0 : text.strip().length();
+        if (length == 0) {
+            return "0";
+        }
+        int lower = 1;
+        for (int upper : TEXT_LENGTHS) {
+            if (length <= upper) {
+                return lower + "-" + upper;
+            }
+            lower = upper + 1;
+        }
+        return lower + "+";
+    }
+
+    private Tags bookingListTags(String role, ProceedingJoinPoint call) {
+        Object[] args = call.getArgs();
+        return Tags.of("role", role,
+                "state", state((String) args[1]),
+                "page", args[2] instanceof PageCursor ? "cursor" : "offset");
+    }
+
+    private Object timed(ProceedingJoinPoint call, String name, Tags tags) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            return call.proceed();
+        } catch (Throwable ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+}
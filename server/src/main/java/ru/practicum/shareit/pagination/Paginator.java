@@ -13,4 +13,9 @@ public class Paginator {
     public static PageRequest simplePage(int from, int size) {
         return PageRequest.of(from / size, size);
     }
+
+    // первая страница без OFFSET: сортировка и условие "после курсора" заданы в самом запросе
+    public static PageRequest keyset(int size) {
+        return PageRequest.of(0, size);
+    }
 }
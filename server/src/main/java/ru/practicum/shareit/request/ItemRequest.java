@@ -22,7 +22,7 @@ public class ItemRequest {
     @Column(name = "description", nullable = false)
     private String description; // текст запроса с описанием item
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id")
     @ToString.Exclude
     private User requestor;
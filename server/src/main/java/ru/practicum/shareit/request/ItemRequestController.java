@@ -2,9 +2,12 @@ package ru.practicum.shareit.request;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 
@@ -31,25 +34,48 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDtoResponse> getRequests(@RequestHeader(Constant.OWNER_ID) long userId,
-                                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                    @RequestParam(name = "size", defaultValue = "5") Integer size) {
+    public ResponseEntity<List<ItemRequestDtoResponse>> getRequests(@RequestHeader(Constant.OWNER_ID) long userId,
+                                                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                    @RequestParam(name = "size", defaultValue = "5") Integer size,
+                                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Получен запрос от пользователя с id {} на получение списка запросов", userId);
-        return requestService.getRequestsByOwner(userId, from, size);
+        List<ItemRequestDtoResponse> requests = cursor == null
+                ? requestService.getRequestsByOwner(userId, from, size)
+                : requestService.getRequestsByOwnerAfter(userId, PageCursor.decode(cursor), size);
+        return withNextCursor(requests, size);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDtoResponse> getAllRequests(@RequestHeader(Constant.OWNER_ID) long userId,
-                                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                       @RequestParam(name = "size", defaultValue = "5") Integer size) {
+    public ResponseEntity<List<ItemRequestDtoResponse>> getAllRequests(@RequestHeader(Constant.OWNER_ID) long userId,
+                                                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                       @RequestParam(name = "size", defaultValue = "5") Integer size,
+                                                                       @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Получен запрос от пользователя с id {} на получение запросов по {} на странице", userId, size);
-        return requestService.getAllRequests(userId, from, size);
+        List<ItemRequestDtoResponse> requests = cursor == null
+                ? requestService.getAllRequests(userId, from, size)
+                : requestService.getAllRequestsAfter(userId, PageCursor.decode(cursor), size);
+        return withNextCursor(requests, size);
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDtoResponse getRequestsById(@RequestHeader(Constant.OWNER_ID) long userId,
-                                                  @PathVariable long requestId) {
+                                                  @PathVariable long requestId,
+                                                  WebRequest request) {
         log.info("Получен запрос от пользователя с id {} на получение запроса с id {}", userId, requestId);
+        if (requestService.getRequestEtag(userId, requestId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return requestService.getRequestsById(userId, requestId);
     }
+
+    // X-Next-Cursor есть только у полной страницы: дата создания и id её последнего запроса
+    private static ResponseEntity<List<ItemRequestDtoResponse>> withNextCursor(List<ItemRequestDtoResponse> requests, int size) {
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        ItemRequestDtoResponse last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constant.NEXT_CURSOR, new PageCursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
+    }
 }
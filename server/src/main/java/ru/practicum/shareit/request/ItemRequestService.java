@@ -5,9 +5,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemStorage;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.pagination.Paginator;
 import ru.practicum.shareit.request.dto.ItemRequestDtoRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
@@ -16,7 +18,8 @@ import ru.practicum.shareit.user.UserStorage;
 
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -43,9 +46,8 @@ public class ItemRequestService {
 
     @Transactional(readOnly = true)
     public List<ItemRequestDtoResponse> getRequestsByOwner(long userId, Integer from, Integer size) {
-        checkUserId(userId);
-
         List<ItemRequest> itemRequests = requestStorage.findAllByRequestorId(userId, Paginator.withSort(from, size, Constant.SORT_BY_CREATED_DESC));
+        checkUserExistsIfEmpty(userId, itemRequests);
         List<ItemRequestDtoResponse> itemsRequest = joinItemsToItemRequest(itemRequests);
         log.info("Пользователь {} получил список своих запросов из {} элементов", userId, itemsRequest.size());
         return itemsRequest;
@@ -53,7 +55,7 @@ public class ItemRequestService {
 
     @Transactional(readOnly = true)
     public List<ItemRequestDtoResponse> getAllRequests(long userId, Integer from, Integer size) {
-        checkUserId(userId);
+        checkUserExists(userId);
 
         List<ItemRequest> itemRequests = requestStorage.findAllByRequestorIdNot(userId, Paginator.withSort(from, size, Constant.SORT_BY_CREATED_DESC));
         List<ItemRequestDtoResponse> itemsRequest = joinItemsToItemRequest(itemRequests);
@@ -61,9 +63,32 @@ public class ItemRequestService {
         return itemsRequest;
     }
 
+    @Transactional(readOnly = true)
+    public List<ItemRequestDtoResponse> getRequestsByOwnerAfter(long userId, PageCursor cursor, Integer size) {
+        List<ItemRequest> itemRequests = requestStorage.findAllByRequestorIdAfterCursor(
+                userId, cursor.getTimestamp(), cursor.getId(), Paginator.keyset(size));
+        checkUserExistsIfEmpty(userId, itemRequests);
+        List<ItemRequestDtoResponse> itemsRequest = joinItemsToItemRequest(itemRequests);
+        log.info("Пользователь {} получил список своих запросов из {} элементов после курсора {}",
+                userId, itemsRequest.size(), cursor);
+        return itemsRequest;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemRequestDtoResponse> getAllRequestsAfter(long userId, PageCursor cursor, Integer size) {
+        checkUserExists(userId);
+
+        List<ItemRequest> itemRequests = requestStorage.findAllByRequestorIdNotAfterCursor(
+                userId, cursor.getTimestamp(), cursor.getId(), Paginator.keyset(size));
+        List<ItemRequestDtoResponse> itemsRequest = joinItemsToItemRequest(itemRequests);
+        log.info("Пользователь {} получил список всех запросов из {} элементов после курсора {}",
+                userId, itemsRequest.size(), cursor);
+        return itemsRequest;
+    }
+
     @Transactional(readOnly = true)
     public ItemRequestDtoResponse getRequestsById(long userId, long requestId) {
-        checkUserId(userId);
+        checkUserExists(userId);
         ItemRequest reqItem = checkRequestId(requestId);
         List<ItemDtoForRequest> items = itemStorage.findAllByRequestId(requestId);
 
@@ -71,16 +96,25 @@ public class ItemRequestService {
         return ItemRequestMapper.toItemRequestDtoResponse(reqItem, items);
     }
 
+    // ETag ответа getRequestsById: запрос не меняется, поэтому в нём только число и время изменения вещей по запросу
+    @Transactional(readOnly = true)
+    public Optional<String> getRequestEtag(long userId, long requestId) {
+        return requestStorage.findVersionById(requestId, userId)
+                .map(v -> EntityTags.of("request", requestId, v.getItems(), v.getItemsLastModified()));
+    }
+
+    // порядок запросов сохраняется: по последнему элементу страницы строится курсор следующей
     private List<ItemRequestDtoResponse> joinItemsToItemRequest(List<ItemRequest> itemRequests) {
-        Map<Long, ItemRequest> requests = itemRequests
+        Set<Long> requestIds = itemRequests
                 .stream()
-                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
 
-        Map<Long, List<ItemDtoForRequest>> items = itemStorage.findAllByRequestIdIn(requests.keySet())
+        Map<Long, List<ItemDtoForRequest>> items = itemStorage.findAllByRequestIdIn(requestIds)
                 .stream()
                 .collect(Collectors.groupingBy(ItemDtoForRequest::getRequestId));
 
-        List<ItemRequestDtoResponse> itemsRequest = requests.values()
+        List<ItemRequestDtoResponse> itemsRequest = itemRequests
                 .stream()
                 .map(i -> ItemRequestMapper.toItemRequestDtoResponse(i, items.getOrDefault(i.getId(), List.of())))
                 .collect(Collectors.toList());
@@ -92,6 +126,20 @@ public class ItemRequestService {
                 new NotFoundException(String.format("Пользователь с id %d не существует", userId)));
     }
 
+    // findById, а не existsById: count по users идёт в базу всегда, а User читается из кэша второго уровня
+    private void checkUserExists(long userId) {
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException(String.format("Пользователь с id %d не существует", userId));
+        }
+    }
+
+    // запрос ссылается на автора внешним ключом: непустая страница его запросов уже доказывает, что автор есть
+    private void checkUserExistsIfEmpty(long userId, List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            checkUserExists(userId);
+        }
+    }
+
     private ItemRequest checkRequestId(long reqId) {
         return requestStorage.findById(reqId).orElseThrow(() ->
                 new NotFoundException(String.format("Запрос с id %d не существует", reqId)));
@@ -2,11 +2,39 @@ package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.dto.ItemRequestVersion;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
+    // продолжение выдачи строго после курсора (created, id) в порядке created desc, id desc
+    String AFTER_CURSOR = " and (r.created < :cursorCreated or (r.created = :cursorCreated and r.id < :cursorId)) " +
+            " order by r.created desc, r.id desc";
+
     List<ItemRequest> findAllByRequestorId(long userId, PageRequest pageRequest);
 
     List<ItemRequest> findAllByRequestorIdNot(long userId, PageRequest pageRequest);
+
+    @Query("select r from ItemRequest r where r.requestor.id = :userId" + AFTER_CURSOR)
+    List<ItemRequest> findAllByRequestorIdAfterCursor(@Param("userId") long userId,
+                                                      @Param("cursorCreated") LocalDateTime cursorCreated,
+                                                      @Param("cursorId") long cursorId,
+                                                      PageRequest pageRequest);
+
+    @Query("select r from ItemRequest r where r.requestor.id <> :userId" + AFTER_CURSOR)
+    List<ItemRequest> findAllByRequestorIdNotAfterCursor(@Param("userId") long userId,
+                                                         @Param("cursorCreated") LocalDateTime cursorCreated,
+                                                         @Param("cursorId") long cursorId,
+                                                         PageRequest pageRequest);
+
+    // пустой результат, если запроса или пользователя нет: тогда ответ строится обычным путём и падает с 404
+    @Query(" select count(i.id) as items, max(i.lastModified) as itemsLastModified " +
+            " from ItemRequest r left join Item i on i.requestId = r.id " +
+            " where r.id = :requestId and exists (select u.id from User u where u.id = :userId) " +
+            " group by r.id ")
+    Optional<ItemRequestVersion> findVersionById(@Param("requestId") long requestId, @Param("userId") long userId);
 }
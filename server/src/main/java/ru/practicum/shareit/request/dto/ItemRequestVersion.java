@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request.dto;
+
+import java.time.LocalDateTime;
+
+public interface ItemRequestVersion {
+    Long getItems(); // сам запрос не меняется, меняется только список вещей по нему
+
+    LocalDateTime getItemsLastModified();
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.statistics;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * SQL текущего HTTP-запроса: выполненные statement (пакет - одно обращение к БД), прочитанные и изменённые строки
+ * и время выполнения в JDBC без чтения результата. Запрос обрабатывается одним потоком, поэтому счётчики
+ * лежат в ThreadLocal и не синхронизируются; SQL вне HTTP-запроса (миграции, фоновые задачи) не учитывается.
+ */
+public class RequestSqlStats {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+    private long nanos;
+    private long statementStarted;
+
+    static RequestSqlStats start() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    @Nullable
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    void beforeStatement() {
+        statementStarted = System.nanoTime();
+    }
+
+    void afterStatement(long affectedRows) {
+        statements++;
+        rows += affectedRows;
+        nanos += System.nanoTime() - statementStarted;
+    }
+
+    void rowRead() {
+        rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public void writeHeaders(HttpHeaders headers) {
+        writeHeaders(headers::set);
+    }
+
+    void writeHeaders(BiConsumer<String, String> header) {
+        header.accept(STATEMENTS_HEADER, String.valueOf(statements));
+        header.accept(ROWS_HEADER, String.valueOf(rows));
+        header.accept(TIME_HEADER, String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statement, %d строк, %d мс", statements, rows, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.statistics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Учёт SQL по HTTP-запросам (shareit.sql.accounting.enabled, по умолчанию включён): DataSource оборачивается
+ * datasource-proxy, SqlAccountingFilter подводит итог запроса. Число statement на эндпоинт видно сразу,
+ * без сравнения логов Hibernate - так ловится N+1 после изменения маппинга или запроса.
+ * shareit.sql.headers=true добавляет X-Sql-Statements, X-Sql-Rows и X-Sql-Time-Ms в ответы - только для отладки,
+ * shareit.sql.warn-statements - порог предупреждения в логе.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingConfig {
+
+    // static: пост-процессор создаётся раньше остальных бинов конфигурации и самого DataSource
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourceProxy() {
+        SqlAccountingListener listener = new SqlAccountingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlAccountingFilter> sqlAccountingFilter(
+            MeterRegistry registry,
+            @Value("${shareit.sql.warn-statements:20}") int warnStatements,
+            @Value("${shareit.sql.headers:false}") boolean headers) {
+        FilterRegistrationBean<SqlAccountingFilter> registration =
+                new FilterRegistrationBean<>(new SqlAccountingFilter(registry, warnStatements, headers));
+        // снаружи остальных фильтров: в итог попадает и SQL, выполненный ими
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.statistics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Итог SQL по HTTP-запросу: shareit.sql.statements, shareit.sql.rows и shareit.sql.time с тегами method и uri
+ * (шаблон пути, как у http.server.requests), предупреждение в лог при числе statement больше порога.
+ * Заголовки X-Sql-* ставятся здесь, если ответ ещё не отправлен; у отправленного их заранее поставил SqlHeadersAdvice.
+ */
+@Slf4j
+public class SqlAccountingFilter extends OncePerRequestFilter {
+    static final String STATEMENTS = "shareit.sql.statements";
+    static final String ROWS = "shareit.sql.rows";
+    static final String TIME = "shareit.sql.time";
+
+    private final MeterRegistry registry;
+    private final int warnStatements;
+    private final boolean headers;
+
+    public SqlAccountingFilter(MeterRegistry registry, int warnStatements, boolean headers) {
+        this.registry = registry;
+        this.warnStatements = warnStatements;
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.finish();
+            if (headers && !response.isCommitted()) {
+                stats.writeHeaders(response::setHeader);
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestSqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+        DistributionSummary.builder(STATEMENTS)
+                .description("SQL statement на HTTP-запрос")
+                .tags(tags)
+                .register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder(ROWS)
+                .description("Прочитанные и изменённые строки на HTTP-запрос")
+                .tags(tags)
+                .register(registry)
+                .record(stats.getRows());
+        Timer.builder(TIME)
+                .description("Время выполнения SQL на HTTP-запрос")
+                .tags(tags)
+                .register(registry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+        if (stats.getStatements() > warnStatements) {
+            log.warn("{} {}: {} - больше порога shareit.sql.warn-statements={}", request.getMethod(),
+                    request.getRequestURI(), stats, warnStatements);
+        }
+    }
+}
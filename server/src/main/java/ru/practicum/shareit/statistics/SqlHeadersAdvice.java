@@ -0,0 +1,36 @@
+package ru.practicum.shareit.statistics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Заголовки X-Sql-* перед записью тела: большой ответ уходит клиенту ещё внутри обработчика,
+ * и после него заголовки добавить уже нельзя. SQL, выполненный при сериализации тела, сюда не попадает -
+ * он виден в метриках SqlAccountingFilter.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "shareit.sql.headers", havingValue = "true")
+public class SqlHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.writeHeaders(response.getHeaders());
+        }
+        return body;
+    }
+}
@@ -5,8 +5,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemStorage;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,10 +16,12 @@ import java.util.stream.Collectors;
 @Service
 public class UserService {
     private final UserStorage userStorage;
+    private final ItemStorage itemStorage;
 
     @Autowired
-    public UserService(UserStorage userStorage) {
+    public UserService(UserStorage userStorage, ItemStorage itemStorage) {
         this.userStorage = userStorage;
+        this.itemStorage = itemStorage;
     }
 
     @Transactional
@@ -31,8 +35,9 @@ public class UserService {
     public UserDto updateUserById(long userId, UserDto user) {
         User expectedUser = checkUserId(userId);
 
-        if (user.getName() != null  && !user.getName().isBlank()) {
+        if (user.getName() != null  && !user.getName().isBlank() && !user.getName().equals(expectedUser.getName())) {
             expectedUser.setName(user.getName());
+            itemStorage.touchCommentedBy(userId, LocalDateTime.now());
         }
         if (user.getEmail() != null && !user.getEmail().isBlank()) {
             expectedUser.setEmail(user.getEmail());
@@ -0,0 +1,23 @@
+-- Бронирования пользователя (BookingStorage.findAllByBookerId*): ALL, CURRENT, PAST, FUTURE и курсор
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+-- Бронирования пользователя в состоянии WAITING / REJECTED
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+
+-- Бронирования владельца идут через items.owner_id, затем по вещам
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date DESC, id DESC);
+
+-- Право на комментарий (existsByItemIdAndBookerIdAndEndBefore)
+CREATE INDEX IF NOT EXISTS idx_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created_date DESC, id DESC);
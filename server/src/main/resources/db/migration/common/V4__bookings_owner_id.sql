@@ -0,0 +1,14 @@
+-- Владелец вещи прямо в бронировании: списки /bookings/owner обходятся без join с items.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+
+-- существующие строки заполняются один раз здесь; дальше owner_id ставит BookingService при создании
+UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id) WHERE owner_id IS NULL;
+
+ALTER TABLE bookings ADD CONSTRAINT fk_booking_owner FOREIGN KEY (owner_id) REFERENCES users (id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_status_start ON bookings (owner_id, status, start_date DESC, id DESC);
+
+-- нужен был только для запросов владельца через items
+DROP INDEX IF EXISTS idx_bookings_item_start;
@@ -0,0 +1,6 @@
+-- Время последнего изменения строки для ETag ответов (@UpdateTimestamp в Item и Booking).
+-- Вещь "трогается" и при изменениях, которые видны в её ответе: комментарий, подтверждение бронирования,
+-- смена имени автора комментария.
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
@@ -0,0 +1,7 @@
+-- Одна вещь не может быть в двух действующих (WAITING / APPROVED) бронированиях на пересекающиеся периоды.
+-- Интервалы полуоткрытые: бронирование может начаться ровно в момент окончания предыдущего.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.exception.BookingStatusException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Владелец одновременно подтверждает и отклоняет одно бронирование из многих потоков.
+ * Статус должен смениться ровно один раз, остальные запросы - получить ошибку, а не перезаписать его.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import({BookingService.class, BookingOverlapLocks.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingApprovalConcurrencyTest {
+    private static final int THREADS = 12;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void clear() {
+        bookingStorage.deleteAll();
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void approvedBooking_whenConcurrentDecisions_thenOnlyOneApplied() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = LocalDateTime.now().plusDays(1 + round);
+                Booking booking = bookingStorage.save(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .ownerId(owner.getId())
+                        .start(start)
+                        .end(start.plusHours(1))
+                        .status(BookingStatus.WAITING)
+                        .build());
+                decideConcurrently(executor, booking.getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void decideConcurrently(ExecutorService executor, long bookingId) throws Exception {
+        AtomicInteger rejectedByStatus = new AtomicInteger();
+        AtomicInteger rejectedByVersion = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingDtoResponse>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean approved = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return bookingService.approvedBooking(owner.getId(), approved, bookingId);
+                } catch (BookingStatusException ex) {
+                    rejectedByStatus.incrementAndGet();
+                } catch (ObjectOptimisticLockingFailureException ex) {
+                    rejectedByVersion.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        List<BookingDtoResponse> winners = new ArrayList<>();
+        for (Future<BookingDtoResponse> future : futures) {
+            BookingDtoResponse response = future.get(1, TimeUnit.MINUTES);
+            if (response != null) {
+                winners.add(response);
+            }
+        }
+
+        assertEquals(1, winners.size());
+        assertEquals(THREADS - 1, rejectedByStatus.get() + rejectedByVersion.get());
+        Booking stored = bookingStorage.findById(bookingId).orElseThrow();
+        assertEquals(winners.get(0).getStatus(), stored.getStatus());
+        assertEquals(1, stored.getVersion());
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dto.BookingApprovalResult;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.statistics.JdbcStatementCounter;
+import ru.practicum.shareit.statistics.SqlAccountingConfig;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({BookingService.class, BookingOverlapLocks.class, BookingBatchApprovalTest.DataSourceProxyConfig.class})
+class BookingBatchApprovalTest {
+    private static final int ITEMS = 10;
+    private static final int BOOKINGS_PER_ITEM = 4;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private DataSource dataSource;
+    private User owner;
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        User booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemStorage.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                bookingIds.add(bookingStorage.save(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .ownerId(owner.getId())
+                        .start(start.plusDays(j))
+                        .end(start.plusDays(j).plusHours(1))
+                        .status(BookingStatus.WAITING)
+                        .build()).getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void approveBookings_whenManyBookings_thenQueryCountDoesNotGrow() {
+        long fewStatements = countStatements(bookingIds.subList(0, 2));
+        long manyStatements = countStatements(bookingIds.subList(2, bookingIds.size()));
+
+        assertEquals(fewStatements, manyStatements);
+        // выборка бронирований, пачка update бронирований и отметка last_modified их вещей для ETag
+        assertEquals(3, manyStatements, "Запросов к БД: " + manyStatements);
+        bookingStorage.findAllById(bookingIds)
+                .forEach(b -> assertEquals(BookingStatus.APPROVED, b.getStatus()));
+    }
+
+    // счёт по JDBC: отметка last_modified идёт через NamedParameterJdbcTemplate, статистика Hibernate её не видит
+    private long countStatements(List<Long> ids) {
+        try (JdbcStatementCounter counter = JdbcStatementCounter.attach(dataSource)) {
+            List<BookingApprovalResult> results = bookingService.approveBookings(owner.getId(), true, ids);
+            entityManager.flush();
+            entityManager.clear();
+
+            assertEquals(ids.size(), results.size());
+            results.forEach(r -> assertEquals(BookingStatus.APPROVED, r.getStatus()));
+            return counter.getStatements();
+        }
+    }
+
+    // срез @DataJpaTest не поднимает SqlAccountingConfig, а без обёртки datasource-proxy считать нечем
+    @TestConfiguration
+    static class DataSourceProxyConfig {
+        @Bean
+        static BeanPostProcessor dataSourceProxy() {
+            return SqlAccountingConfig.sqlAccountingDataSourceProxy();
+        }
+    }
+}
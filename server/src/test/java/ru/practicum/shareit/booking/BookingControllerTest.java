@@ -6,6 +6,8 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,22 +15,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.exception.ExceptionApiHandler;
 import ru.practicum.shareit.item.dto.ItemDtoForBooking;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.dto.UserDtoForBooking;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +48,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class BookingControllerTest {
     @Mock
     private BookingService bookingService;
+    @Mock
+    private BookingExporter bookingExporter;
     @InjectMocks
     private BookingController bookingController;
     private MockMvc mvc;
@@ -51,6 +65,7 @@ class BookingControllerTest {
     void init() {
         mvc = MockMvcBuilders
                 .standaloneSetup(bookingController)
+                .setControllerAdvice(new ExceptionApiHandler())
                 .build();
 
         bookingResponse = BookingDtoResponse.builder()
@@ -105,6 +120,59 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.booker.id", is(bookingResponse.getBooker().getId()), Long.class));
     }
 
+    @Test
+    void approveBookings_whenIdsGiven_thenReturnResultPerId() throws Exception {
+        List<BookingApprovalResult> results = List.of(
+                BookingApprovalResult.builder().bookingId(1L).status(BookingStatus.APPROVED).build(),
+                BookingApprovalResult.builder().bookingId(2L).error("Бронирование уже REJECTED").build());
+        when(bookingService.approveBookings(1L, true, List.of(1L, 2L)))
+                .thenReturn(results);
+
+        mvc.perform(patch("/bookings?approved=true")
+                        .content(mapper.writeValueAsString(BookingApprovalRequest.builder().bookingIds(List.of(1L, 2L)).build()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].error", is("Бронирование уже REJECTED")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{}", "{\"bookingIds\":[]}", "{\"bookingIds\":[1,null]}"})
+    void approveBookings_whenNoBookingIds_thenBadRequest(String body) throws Exception {
+        mvc.perform(patch("/bookings?approved=true")
+                        .content(body)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "1"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).approveBookings(anyLong(), anyBoolean(), any());
+    }
+
+    @Test
+    void approveBookings_whenTooManyBookingIds_thenBadRequest() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, BookingApprovalRequest.MAX_BOOKINGS + 1).boxed()
+                .collect(Collectors.toList());
+
+        mvc.perform(patch("/bookings?approved=true")
+                        .content(mapper.writeValueAsString(BookingApprovalRequest.builder().bookingIds(ids).build()))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Нельзя изменить больше 100 бронирований за раз")));
+
+        verify(bookingService, never()).approveBookings(anyLong(), anyBoolean(), any());
+    }
+
     @Test
     void getBookingById_whenValidId_thenReturnBooking() throws Exception {
         when(bookingService.getBookingById(anyLong(), anyLong()))
@@ -154,4 +222,47 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSortBookingByUser_whenCursorAndFullPage_thenReturnNextCursor() throws Exception {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 1, 1, 12, 0), 10L);
+        when(bookingService.getSortBookingByUserAfter(1L, "ALL", cursor, 1))
+                .thenReturn(List.of(bookingResponse));
+
+        mvc.perform(get("/bookings?state=ALL&size=1&cursor=" + cursor.encode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(Constant.NEXT_CURSOR,
+                        new PageCursor(bookingResponse.getStart(), bookingResponse.getId()).encode()));
+    }
+
+    @Test
+    void getSortBookingByOwner_whenPageNotFull_thenNoNextCursor() throws Exception {
+        when(bookingService.getSortBookingByOwner(anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingResponse));
+
+        mvc.perform(get("/bookings/owner?state=ALL&size=5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Constant.NEXT_CURSOR));
+    }
+
+    @Test
+    void exportBookingsByOwner_whenCalled_thenNdjsonFromExporter() throws Exception {
+        mvc.perform(get("/bookings/owner/export")
+                        .header(Constant.OWNER_ID, "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        verify(bookingExporter).checkUserExists(1L);
+        verify(bookingExporter).exportByOwner(eq(1L), any());
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Выгрузка истории бронирований в NDJSON: каждая строка - отдельный BookingDtoResponse, порядок как у списка,
+ * и число запросов к БД не зависит от длины истории.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingExportTest {
+    private static final int BOOKINGS = 1_200;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private User owner;
+    private User otherOwner;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        otherOwner = userStorage.save(User.builder().name("Other").email("other@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        Item item = saveItem(owner);
+        Item otherItem = saveItem(otherOwner);
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item booked = i % 2 == 0 ? item : otherItem;
+            bookings.add(Booking.builder()
+                    .item(booked)
+                    .booker(booker)
+                    .ownerId(booked.getOwner().getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+        bookingStorage.saveAll(bookings);
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void exportBookingsByUser_whenLongHistory_thenEveryBookingOnItsOwnLine() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        List<BookingDtoResponse> exported = export("/bookings/export", booker);
+
+        assertEquals(BOOKINGS, exported.size());
+        assertEquals(exported.stream()
+                        .sorted(Comparator.comparing(BookingDtoResponse::getStart).reversed())
+                        .collect(Collectors.toList()),
+                exported);
+        assertEquals(booker.getId(), exported.get(0).getBooker().getId());
+        assertEquals("Brain", exported.get(0).getItem().getName());
+        // проверка пользователя и один курсор на всю историю; загружается только сам пользователь
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void exportBookingsByOwner_whenCalled_thenOnlyOwnerItems() throws Exception {
+        List<BookingDtoResponse> exported = export("/bookings/owner/export", owner);
+
+        assertEquals(BOOKINGS / 2, exported.size());
+        List<Long> ownerBookingIds = bookingStorage.findAll().stream()
+                .filter(b -> b.getOwnerId().equals(owner.getId()))
+                .map(Booking::getId)
+                .sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList());
+        assertEquals(ownerBookingIds, exported.stream().map(BookingDtoResponse::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void exportBookingsByUser_whenUserNotExist_thenNotFoundAsJson() throws Exception {
+        mvc.perform(get("/bookings/export").header(Constant.OWNER_ID, -1))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void exportBookingsByOwner_whenNoBookings_thenEmptyBody() throws Exception {
+        assertTrue(export("/bookings/owner/export", booker).isEmpty());
+    }
+
+    private List<BookingDtoResponse> export(String path, User user) throws Exception {
+        MvcResult result = mvc.perform(get(path).header(Constant.OWNER_ID, user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<BookingDtoResponse> bookings = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                bookings.add(objectMapper.readValue(line, BookingDtoResponse.class));
+            }
+        }
+        assertTrue(body.isEmpty() || body.endsWith("\n"));
+        return bookings;
+    }
+
+    private Item saveItem(User itemOwner) {
+        return itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(itemOwner)
+                .build());
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение чтения страницы бронирований через сущности Booking (как было до проекции) и через BookingListRow:
+ * число SQL-запросов и байты, выделенные потоком на одну страницу. Кэш второго уровня перед каждым замером очищается,
+ * чтобы связи грузились из БД, как при холодном старте.
+ */
+@Slf4j
+@DataJpaTest
+@Import({BookingService.class, BookingOverlapLocks.class})
+class BookingListProjectionBenchmarkTest {
+    private static final int OWNERS = 10;
+    private static final int ITEMS = 50;
+    private static final int BOOKINGS = 200;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARM_UP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManager entityManager;
+    private Statistics statistics;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            User owner = i < OWNERS
+                    ? userStorage.save(User.builder().name("Owner " + i).email("owner" + i + "@mail.ru").build())
+                    : items.get(i % OWNERS).getOwner();
+            items.add(itemStorage.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build()));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item item = items.get(i % ITEMS);
+            bookings.add(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .ownerId(item.getOwner().getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        bookingStorage.saveAll(bookings);
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getSortBookingByUser_whenProjection_thenFewerStatementsAndLessAllocation() {
+        Measure entities = measure(this::loadPageAsEntities);
+        Measure rows = measure(() -> bookingService.getSortBookingByUser(booker.getId(), "ALL", 0, PAGE_SIZE));
+        log.info("Страница из {} бронирований через сущности: {} запросов, {} байт", PAGE_SIZE,
+                entities.statements, entities.bytes);
+        log.info("Страница из {} бронирований через проекцию: {} запросов, {} байт", PAGE_SIZE,
+                rows.statements, rows.bytes);
+
+        assertEquals(1, rows.statements);
+        assertTrue(rows.statements < entities.statements,
+                "Запросов через сущности: " + entities.statements);
+        assertTrue(rows.bytes * 2 < entities.bytes,
+                "Байт через проекцию: " + rows.bytes + ", через сущности: " + entities.bytes);
+    }
+
+    @Test
+    void getSortBookingByUser_whenProjection_thenSameResponseAsEntities() {
+        List<BookingDtoResponse> entities = loadPageAsEntities();
+        entityManager.clear();
+        List<BookingDtoResponse> rows = bookingService.getSortBookingByUser(booker.getId(), "ALL", 0, PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, rows.size());
+        assertEquals(entities, rows);
+    }
+
+    // прежний путь: сущности Booking, затем маппинг в ответ - каждая вещь догружается отдельным select
+    private List<BookingDtoResponse> loadPageAsEntities() {
+        return entityManager.createQuery("select b from Booking b where b.booker.id = :bookerId " +
+                        "order by b.start desc, b.id desc", Booking.class)
+                .setParameter("bookerId", booker.getId())
+                .setMaxResults(PAGE_SIZE)
+                .getResultStream()
+                .map(BookingMapper::toBookingDtoResponse)
+                .collect(Collectors.toList());
+    }
+
+    private Measure measure(Supplier<List<BookingDtoResponse>> page) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP; i++) {
+            reset();
+            assertEquals(PAGE_SIZE, page.get().size());
+        }
+        long statements = 0;
+        long bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            reset();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            assertEquals(PAGE_SIZE, page.get().size());
+            bytes += threads.getThreadAllocatedBytes(threadId) - before;
+            statements += statistics.getPrepareStatementCount();
+        }
+        return new Measure(statements / ITERATIONS, bytes / ITERATIONS);
+    }
+
+    private void reset() {
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+    }
+
+    private static class Measure {
+        private final long statements;
+        private final long bytes;
+
+        Measure(long statements, long bytes) {
+            this.statements = statements;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тысячи конкурирующих бронирований нескольких вещей на пересекающиеся периоды из многих потоков.
+ * Каждое createBooking идёт в своей транзакции; в итоге у вещи не должно быть пересечений среди WAITING/APPROVED.
+ */
+@Slf4j
+@DataJpaTest(properties = {"shareit.bookings.overlap-lock.enabled=true", "spring.jpa.show-sql=false"})
+@Import({BookingService.class, BookingOverlapLocks.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingOverlapStressTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 2000;
+    private static final int ITEMS = 4;
+    private static final int HOURS = 500;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    private final List<User> bookers = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        User owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userStorage.save(User.builder().name("Booker" + i).email("booker" + i + "@mail.ru").build()));
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(itemStorage.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void clear() {
+        bookingStorage.deleteAll();
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void createBooking_whenConcurrentOverlappingRequests_thenNoOverlapsStored() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long bookerId = bookers.get(t).getId();
+            Random random = new Random(t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS / THREADS; i++) {
+                    LocalDateTime from = base.plusHours(random.nextInt(HOURS));
+                    BookingDtoRequest request = BookingDtoRequest.builder()
+                            .itemId(items.get(random.nextInt(ITEMS)).getId())
+                            .start(from)
+                            .end(from.plusHours(1 + random.nextInt(6)))
+                            .build();
+                    try {
+                        bookingService.createBooking(bookerId, request);
+                        created.incrementAndGet();
+                    } catch (ConflictException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        executor.shutdown();
+        log.info("Бронирований: {} создано, {} отклонено за {} с - {} запросов/с",
+                created.get(), conflicts.get(), String.format("%.2f", seconds),
+                String.format("%.0f", ATTEMPTS / seconds));
+
+        assertEquals(ATTEMPTS, created.get() + conflicts.get());
+        assertTrue(created.get() > 0);
+        assertTrue(conflicts.get() > 0);
+        assertEquals(created.get(), bookingStorage.count());
+        assertNoOverlaps();
+    }
+
+    private void assertNoOverlaps() {
+        Map<Long, List<Booking>> byItem = bookingStorage.findAll().stream()
+                .filter(b -> b.getStatus() == BookingStatus.WAITING || b.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        for (List<Booking> bookings : byItem.values()) {
+            bookings.sort(Comparator.comparing(Booking::getStart));
+            for (int i = 1; i < bookings.size(); i++) {
+                Booking previous = bookings.get(i - 1);
+                Booking current = bookings.get(i);
+                assertFalse(current.getStart().isBefore(previous.getEnd()),
+                        String.format("Пересекаются бронирования %d и %d", previous.getId(), current.getId()));
+            }
+        }
+    }
+}
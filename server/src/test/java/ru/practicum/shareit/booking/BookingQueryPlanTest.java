@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.comment.CommentStorage;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.Paginator;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы запросов списков бронирований по каждому BookingStateStatus на схеме из миграций Flyway.
+ * SQL и параметры перехватываются datasource-proxy при вызове BookingService и репозиториев,
+ * так что EXPLAIN выполняется ровно для того, что построил Hibernate.
+ * H2 помечает полный просмотр таблицы как tableScan - такой план считается регрессией.
+ */
+@SpringBootTest
+class BookingQueryPlanTest {
+    private static final int SIZE = 5;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private CommentStorage commentStorage;
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+    @Autowired
+    private UserStorage userStorage;
+    private long userId;
+    private final PageCursor cursor = new PageCursor(LocalDateTime.now(), Long.MAX_VALUE);
+
+    @BeforeEach
+    void init() {
+        userId = userStorage.save(User.builder().name("User").email("user@mail.ru").build()).getId();
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void bookerStateQueries_whenExplained_thenUseIndexes() {
+        for (BookingStateStatus state : BookingStateStatus.values()) {
+            assertUsesIndexes(state + " по букеру", "bookings",
+                    () -> bookingService.getSortBookingByUser(userId, state.name(), 0, SIZE));
+            assertUsesIndexes(state + " по букеру после курсора", "bookings",
+                    () -> bookingService.getSortBookingByUserAfter(userId, state.name(), cursor, SIZE));
+        }
+    }
+
+    @Test
+    void ownerStateQueries_whenExplained_thenUseIndexes() {
+        for (BookingStateStatus state : BookingStateStatus.values()) {
+            assertUsesIndexes(state + " по владельцу", "bookings",
+                    () -> bookingService.getSortBookingByOwner(userId, state.name(), 0, SIZE));
+            assertUsesIndexes(state + " по владельцу после курсора", "bookings",
+                    () -> bookingService.getSortBookingByOwnerAfter(userId, state.name(), cursor, SIZE));
+        }
+    }
+
+    @Test
+    void relatedQueries_whenExplained_thenUseIndexes() {
+        assertUsesIndexes("проверка права на отзыв", "bookings",
+                () -> bookingStorage.existsByItemIdAndBookerIdAndEndBefore(1L, userId, LocalDateTime.now()));
+        assertUsesIndexes("отзывы вещи", "comments", () -> commentStorage.findAllByItemId(1L));
+        assertUsesIndexes("вещи владельца", "items",
+                () -> itemStorage.findAllItemsByOwnerId(userId, Paginator.simplePage(0, SIZE)));
+        assertUsesIndexes("вещи по запросу", "items", () -> itemStorage.findAllByRequestId(1L));
+        assertUsesIndexes("запросы пользователя", "requests", () -> itemRequestStorage.findAllByRequestorId(userId,
+                Paginator.withSort(0, SIZE, Constant.SORT_BY_CREATED_DESC)));
+    }
+
+    // выполняет вызов, перехватывая select по таблице, и проверяет план каждого из них
+    private void assertUsesIndexes(String name, String table, Runnable call) {
+        List<QueryInfo> selects = capture(call).stream()
+                .filter(query -> query.getQuery().toLowerCase(Locale.ROOT).startsWith("select")
+                        && query.getQuery().toLowerCase(Locale.ROOT).contains(" " + table + " "))
+                .collect(Collectors.toList());
+
+        assertFalse(selects.isEmpty(), name + ": нет select по " + table);
+        selects.forEach(query -> {
+            String plan = explain(query);
+            assertFalse(plan.contains("tableScan"), name + ": " + plan);
+        });
+    }
+
+    private List<QueryInfo> capture(Runnable call) {
+        List<QueryInfo> queries = new ArrayList<>();
+        QueryExecutionListener listener = new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                queries.addAll(queryInfoList);
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+        };
+        List<QueryExecutionListener> listeners = ((ProxyDataSource) dataSource).getProxyConfig()
+                .getQueryListener().getListeners();
+        listeners.add(listener);
+        try {
+            call.run();
+        } finally {
+            listeners.remove(listener);
+        }
+        return queries;
+    }
+
+    // те же параметры, что передал Hibernate, повторяются на PreparedStatement с EXPLAIN
+    private String explain(QueryInfo query) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + query.getQuery())) {
+                for (List<ParameterSetOperation> parameters : query.getParametersList()) {
+                    for (ParameterSetOperation operation : parameters) {
+                        operation.getMethod().invoke(statement, operation.getArgs());
+                    }
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertTrue(resultSet.next());
+                    return resultSet.getString(1);
+                }
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.Paginator;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверка пользователя в списках бронирований: на непустой странице запросов столько же, сколько у самой выборки,
+ * на пустой - один лишний select пользователя по id (с тёплым кэшем его нет - см. UserCacheTest).
+ * Кэш второго уровня перед каждым замером очищается.
+ */
+@DataJpaTest
+@Import({BookingService.class, BookingOverlapLocks.class})
+class BookingServiceQueryCountTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManager entityManager;
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private User stranger;
+    private PageRequest page;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        stranger = userStorage.save(User.builder().name("Stranger").email("stranger@mail.ru").build());
+        Item item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 3; i++) {
+            bookingStorage.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .ownerId(owner.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        page = Paginator.simplePage(0, 10);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getSortBookingByUser_whenPageNotEmpty_thenNoExistenceCheck() {
+        long pageStatements = countStatements(() -> bookingStorage.findAllByBookerId(booker.getId(), page));
+        long serviceStatements = countStatements(() ->
+                assertEquals(3, bookingService.getSortBookingByUser(booker.getId(), "ALL", 0, 10).size()));
+
+        assertEquals(pageStatements, serviceStatements);
+    }
+
+    @Test
+    void getSortBookingByOwner_whenPageNotEmpty_thenNoExistenceCheck() {
+        long pageStatements = countStatements(() -> bookingStorage.findAllByOwnerId(owner.getId(), page));
+        long serviceStatements = countStatements(() ->
+                assertEquals(3, bookingService.getSortBookingByOwner(owner.getId(), "ALL", 0, 10).size()));
+
+        assertEquals(pageStatements, serviceStatements);
+    }
+
+    @Test
+    void getSortBookingByUserAfter_whenPageNotEmpty_thenNoExistenceCheck() {
+        PageCursor cursor = new PageCursor(LocalDateTime.now().plusYears(1), Long.MAX_VALUE);
+        long pageStatements = countStatements(() -> bookingStorage.findAllByBookerIdAfterCursor(
+                booker.getId(), cursor.getTimestamp(), cursor.getId(), Paginator.keyset(10)));
+        long serviceStatements = countStatements(() ->
+                assertEquals(3, bookingService.getSortBookingByUserAfter(booker.getId(), "ALL", cursor, 10).size()));
+
+        assertEquals(pageStatements, serviceStatements);
+    }
+
+    @Test
+    void getSortBookingByUser_whenPageEmpty_thenOneUserSelect() {
+        long statements = countStatements(() -> {
+            List<BookingDtoResponse> bookings = bookingService.getSortBookingByUser(stranger.getId(), "ALL", 0, 10);
+            assertTrue(bookings.isEmpty());
+        });
+
+        // пустая выборка и select пользователя по id
+        assertEquals(2, statements);
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void getSortBookingByOwner_whenUserNotExist_thenNotFound() {
+        long statements = countStatements(() -> assertThrows(NotFoundException.class,
+                () -> bookingService.getSortBookingByOwner(-1L, "ALL", 0, 10)));
+
+        assertEquals(2, statements);
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
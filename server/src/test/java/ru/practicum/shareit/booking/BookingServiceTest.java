@@ -8,11 +8,15 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalResult;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
-import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.booking.dto.BookingListRow;
 import ru.practicum.shareit.exception.BookingStatusException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemStorage;
@@ -20,9 +24,12 @@ import ru.practicum.shareit.pagination.Paginator;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserStorage;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -38,6 +45,8 @@ class BookingServiceTest {
     private UserStorage userStorage;
     @Mock
     private BookingStorage bookingStorage;
+    @Mock
+    private BookingOverlapLocks overlapLocks;
     @Captor
     private ArgumentCaptor<Booking> bookingArgumentCaptor;
     private User testUser;
@@ -45,6 +54,7 @@ class BookingServiceTest {
     private PageRequest page;
     private Item testItem;
     private Booking testBooking;
+    private BookingListRow testRow;
     private BookingDtoRequest bookingRequest;
 
     @BeforeEach
@@ -70,8 +80,6 @@ class BookingServiceTest {
                 .owner(testOwner)
                 .available(true)
                 .requestId(null)
-                .lastBooking(null)
-                .nextBooking(null)
                 .build();
 
         bookingRequest = BookingDtoRequest.builder()
@@ -83,7 +91,10 @@ class BookingServiceTest {
         testBooking = BookingMapper.toBooking(bookingRequest, testItem, testUser, BookingStatus.WAITING);
         testBooking.setId(1L);
 
-        page = Paginator.withSort(0, 5, Constant.SORT_BY_START_DESC);
+        testRow = new BookingListRow(testBooking.getId(), testBooking.getStart(), testBooking.getEnd(),
+                testBooking.getStatus(), testItem.getId(), testItem.getName(), testUser.getId());
+
+        page = Paginator.simplePage(0, 5);
     }
 
     @Test
@@ -103,6 +114,52 @@ class BookingServiceTest {
         verify(itemStorage, times(1)).findById(testItem.getId());
     }
 
+    @Test
+    void createBooking_whenPeriodOverlapsActiveBooking_thenReturnException() {
+        when(userStorage.findById(anyLong()))
+                .thenReturn(Optional.of(testUser));
+        when(itemStorage.findById(anyLong()))
+                .thenReturn(Optional.of(testItem));
+        when(bookingStorage.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(
+                testItem.getId(), Set.of(BookingStatus.WAITING, BookingStatus.APPROVED),
+                bookingRequest.getEnd(), bookingRequest.getStart()))
+                .thenReturn(true);
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> bookingService.createBooking(testUser.getId(), bookingRequest));
+
+        assertEquals(String.format("Вещь с id %d уже забронирована на этот период", testItem.getId()), exception.getMessage());
+        verify(overlapLocks, times(1)).lockItem(testItem.getId());
+        verify(bookingStorage, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_whenExclusionConstraintFails_thenConflict() {
+        when(userStorage.findById(anyLong()))
+                .thenReturn(Optional.of(testUser));
+        when(itemStorage.findById(anyLong()))
+                .thenReturn(Optional.of(testItem));
+        doThrow(new DataIntegrityViolationException("overlap", new ConstraintViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"), null)))
+                .when(bookingStorage).flush();
+
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(testUser.getId(), bookingRequest));
+    }
+
+    @Test
+    void createBooking_whenOtherIntegrityViolation_thenRethrown() {
+        when(userStorage.findById(anyLong()))
+                .thenReturn(Optional.of(testUser));
+        when(itemStorage.findById(anyLong()))
+                .thenReturn(Optional.of(testItem));
+        doThrow(new DataIntegrityViolationException("fk", new ConstraintViolationException("fk",
+                new SQLException("violates foreign key constraint", "23503"), "fk_booking_owner")))
+                .when(bookingStorage).flush();
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.createBooking(testUser.getId(), bookingRequest));
+    }
+
     @Test
     void createBooking_whenInvalidUserId_thenReturnException() {
         when(userStorage.findById(anyLong()))
@@ -169,7 +226,7 @@ class BookingServiceTest {
 
     @Test
     void approvedBooking_whenOwnerAndBookingIsNotWaiting_thenReturnBooking() {
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
         when(bookingStorage.save(any(Booking.class)))
                 .thenReturn(testBooking);
@@ -182,105 +239,138 @@ class BookingServiceTest {
         Booking actualBooking = bookingArgumentCaptor.getValue();
 
         assertEquals(BookingStatus.APPROVED, actualBooking.getStatus());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
         verify(bookingStorage, times(1)).save(testBooking);
     }
 
     @Test
     void approvedBooking_whenInvalidBookingId_thenReturnException() {
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookingService.approvedBooking(testOwner.getId(), true, testBooking.getId()));
 
         assertEquals(String.format("Бронирование с id %d не существует", testBooking.getId()), exception.getMessage());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
         verify(bookingStorage, times(0)).save(testBooking);
     }
 
     @Test
     void approvedBooking_whenBookingStatusIsApproved_thenReturnException() {
         testBooking.setStatus(BookingStatus.APPROVED);
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
 
         BookingStatusException exception = assertThrows(BookingStatusException.class,
                 () -> bookingService.approvedBooking(testOwner.getId(), true, testBooking.getId()));
 
         assertEquals(String.format("Бронирование уже %s", testBooking.getStatus()), exception.getMessage());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
         verify(bookingStorage, times(0)).save(testBooking);
     }
 
     @Test
     void approvedBooking_whenBookingStatusIsReject_thenReturnException() {
         testBooking.setStatus(BookingStatus.REJECTED);
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
 
         BookingStatusException exception = assertThrows(BookingStatusException.class,
                 () -> bookingService.approvedBooking(testOwner.getId(), true, testBooking.getId()));
 
         assertEquals(String.format("Бронирование уже %s", testBooking.getStatus()), exception.getMessage());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
         verify(bookingStorage, times(0)).save(testBooking);
     }
 
     @Test
     void approvedBooking_whenUserIsNotOwner_thenReturnException() {
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookingService.approvedBooking(testUser.getId(), true, testBooking.getId()));
 
         assertEquals(String.format("Пользователь с id %d не является владельцем вещи %d", testUser.getId(), testBooking.getId()), exception.getMessage());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
         verify(bookingStorage, times(0)).save(testBooking);
     }
 
+    @Test
+    void approveBookings_whenMixedIds_thenResultPerId() {
+        Booking approvedBooking = BookingMapper.toBooking(bookingRequest, testItem, testUser, BookingStatus.APPROVED);
+        approvedBooking.setId(2L);
+        when(bookingStorage.findAllWithItemByIdIn(anyCollection()))
+                .thenReturn(List.of(approvedBooking, testBooking));
+
+        List<BookingApprovalResult> results = bookingService.approveBookings(testOwner.getId(), false, List.of(1L, 2L, 3L, 1L));
+
+        assertEquals(List.of(1L, 2L, 3L), results.stream().map(BookingApprovalResult::getBookingId).collect(Collectors.toList()));
+        assertEquals(BookingStatus.REJECTED, results.get(0).getStatus());
+        assertEquals(testItem.getId(), results.get(0).getItemId());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getStatus());
+        assertNull(results.get(1).getItemId());
+        assertEquals("Бронирование уже APPROVED", results.get(1).getError());
+        assertEquals("Бронирование с id 3 не существует", results.get(2).getError());
+        assertEquals(BookingStatus.REJECTED, testBooking.getStatus());
+        assertEquals(BookingStatus.APPROVED, approvedBooking.getStatus());
+        verify(bookingStorage, times(1)).findAllWithItemByIdIn(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void approveBookings_whenUserIsNotOwner_thenBookingUnchanged() {
+        when(bookingStorage.findAllWithItemByIdIn(anyCollection()))
+                .thenReturn(List.of(testBooking));
+
+        List<BookingApprovalResult> results = bookingService.approveBookings(testUser.getId(), true, List.of(1L));
+
+        assertNull(results.get(0).getStatus());
+        assertEquals(String.format("Пользователь с id %d не является владельцем вещи %d", testUser.getId(), testItem.getId()),
+                results.get(0).getError());
+        assertEquals(BookingStatus.WAITING, testBooking.getStatus());
+    }
+
     @Test
     void getBookingById_whenOwnerOrBookerAndBookingExist_thenReturnBooking() {
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
 
         BookingDtoResponse actualBooking = bookingService.getBookingById(testOwner.getId(), testBooking.getId());
 
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualBooking);
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
     }
 
     @Test
     void getBookingById_whenInvalidUserId_thenReturnException() {
         long userId = 100L;
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.of(testBooking));
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingById(userId, testBooking.getId()));
 
         assertEquals(String.format("Пользователь с id %d не относится к этому бронированию", userId), exception.getMessage());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
     }
 
     @Test
     void getBookingById_whenInvalidBookingId_thenReturnException() {
-        when(bookingStorage.findById(anyLong()))
+        when(bookingStorage.findWithItemById(anyLong()))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingById(testOwner.getId(), testBooking.getId()));
 
         assertEquals(String.format("Бронирование с id %d не существует", testBooking.getId()), exception.getMessage());
-        verify(bookingStorage, times(1)).findById(testBooking.getId());
+        verify(bookingStorage, times(1)).findWithItemById(testBooking.getId());
     }
 
     @Test
     void getSortBookingByUser_whenValidUserIdAndStatusAll_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
-        List<Booking> bookings = List.of(testBooking);
+        List<BookingListRow> bookings = List.of(testRow);
         when(bookingStorage.findAllByBookerId(anyLong(), any(PageRequest.class)))
                 .thenReturn(bookings);
 
@@ -288,15 +378,13 @@ class BookingServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
         verify(bookingStorage, times(1)).findAllByBookerId(testUser.getId(), page);
     }
 
     @Test
     void getSortBookingByUser_whenValidUserIdAndStatusCurrent_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
-        List<Booking> bookings = List.of(testBooking);
+        List<BookingListRow> bookings = List.of(testRow);
         when(bookingStorage.findAllByBookerIdAndStartBeforeAndEndAfter(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
@@ -304,14 +392,12 @@ class BookingServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByUser_whenValidUserIdAndStatusPast_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
-        List<Booking> bookings = List.of(testBooking);
+        List<BookingListRow> bookings = List.of(testRow);
         when(bookingStorage.findAllByBookerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
@@ -319,14 +405,12 @@ class BookingServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByUser_whenValidUserIdAndStatusFuture_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
-        List<Booking> bookings = List.of(testBooking);
+        List<BookingListRow> bookings = List.of(testRow);
         when(bookingStorage.findAllByBookerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
@@ -334,14 +418,12 @@ class BookingServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByUser_whenValidUserIdAndStatusWaiting_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
-        List<Booking> bookings = List.of(testBooking);
+        List<BookingListRow> bookings = List.of(testRow);
         when(bookingStorage.findAllByBookerIdAndStatus(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
@@ -349,14 +431,12 @@ class BookingServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByUser_whenValidUserIdAndStatusRejected_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
-        List<Booking> bookings = List.of(testBooking);
+        List<BookingListRow> bookings = List.of(testRow);
         when(bookingStorage.findAllByBookerIdAndStatus(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
@@ -364,7 +444,7 @@ class BookingServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
@@ -388,23 +468,21 @@ class BookingServiceTest {
 
         assertEquals(String.format("Пользователь с id %d не существует", testUser.getId()), exception.getMessage());
         verify(userStorage, times(1)).findById(testUser.getId());
-        verifyNoInteractions(bookingStorage);
+        verify(bookingStorage, times(1)).findAllByBookerIdAndStatus(eq(testUser.getId()), eq(BookingStatus.REJECTED), any(PageRequest.class));
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndBookingExist_thenReturnBooking() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerId(anyLong(), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerId(anyLong(), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "ALL", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
-        verify(bookingStorage, times(1)).findAllByItemOwnerId(testOwner.getId(), page);
+        verifyNoInteractions(userStorage);
+        verify(bookingStorage, times(1)).findAllByOwnerId(testOwner.getId(), page);
     }
 
     @Test
@@ -417,98 +495,86 @@ class BookingServiceTest {
 
         assertEquals(String.format("Пользователь с id %d не существует", testOwner.getId()), exception.getMessage());
         verify(userStorage, times(1)).findById(testOwner.getId());
-        verifyNoInteractions(bookingStorage);
+        verify(bookingStorage, times(1)).findAllByOwnerIdAndStatus(eq(testOwner.getId()), eq(BookingStatus.REJECTED), any(PageRequest.class));
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndStatusAll_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerId(anyLong(), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerId(anyLong(), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "ALL", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
-        verify(bookingStorage, times(1)).findAllByItemOwnerId(testOwner.getId(), page);
+        verifyNoInteractions(userStorage);
+        verify(bookingStorage, times(1)).findAllByOwnerId(testOwner.getId(), page);
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndStatusCurrent_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerIdAndStartBeforeAndEndAfter(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerIdAndStartBeforeAndEndAfter(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "CURRENT", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndStatusPast_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "PAST", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndStatusFuture_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "FUTURE", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndStatusWaiting_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerIdAndStatus(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerIdAndStatus(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "WAITING", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void getSortBookingByOwner_whenValidUserIdAndStatusRejected_thenReturnBookingList() {
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testOwner));
-        List<Booking> bookings = List.of(testBooking);
-        when(bookingStorage.findAllByItemOwnerIdAndStatus(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
+        List<BookingListRow> bookings = List.of(testRow);
+        when(bookingStorage.findAllByOwnerIdAndStatus(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
                 .thenReturn(bookings);
 
         List<BookingDtoResponse> actualList = bookingService.getSortBookingByOwner(testOwner.getId(), "REJECTED", 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(BookingMapper.toBookingDtoResponse(testBooking), actualList.get(0));
-        verify(userStorage, times(1)).findById(testOwner.getId());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.dto.BookingListRow;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.Paginator;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookingStorageTest {
+    private static final int BOOKINGS = 23;
+    private static final int SIZE = 5;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private TestEntityManager entityManager;
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        Item item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        // у пар соседних бронирований одинаковый start - порядок внутри пары задаёт id
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 12, 0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingStorage.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .ownerId(owner.getId())
+                    .start(start.plusHours(i / 2))
+                    .end(start.plusHours(i / 2 + 1))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+    }
+
+    @Test
+    void findAfterCursor_whenWalkAllPages_thenSameOrderAsOffsetPaging() {
+        List<Long> byOffset = new ArrayList<>();
+        for (int from = 0; from < BOOKINGS; from += SIZE) {
+            bookingStorage.findAllByBookerId(booker.getId(), Paginator.simplePage(from, SIZE))
+                    .forEach(b -> byOffset.add(b.getId()));
+        }
+
+        List<Long> byCursor = ids(bookingStorage.findAllByBookerId(booker.getId(), Paginator.simplePage(0, SIZE)));
+        List<BookingListRow> page = List.of();
+        do {
+            Booking last = bookingStorage.findById(byCursor.get(byCursor.size() - 1)).orElseThrow();
+            PageCursor cursor = new PageCursor(last.getStart(), last.getId());
+            page = bookingStorage.findAllByBookerIdAfterCursor(
+                    booker.getId(), cursor.getTimestamp(), cursor.getId(), Paginator.keyset(SIZE));
+            byCursor.addAll(ids(page));
+        } while (page.size() == SIZE);
+
+        assertEquals(BOOKINGS, byOffset.size());
+        assertEquals(byOffset, byCursor);
+        assertEquals(byOffset, ids(bookingStorage.findAllByOwnerIdAfterCursor(
+                owner.getId(), LocalDateTime.of(3000, 1, 1, 0, 0), Long.MAX_VALUE, Paginator.keyset(BOOKINGS))));
+    }
+
+    @Test
+    void save_whenBookingChangedConcurrently_thenOptimisticLockingFailure() {
+        long bookingId = bookingStorage.findAll().get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+        Booking first = bookingStorage.findById(bookingId).orElseThrow();
+        entityManager.clear();
+        Booking second = bookingStorage.findById(bookingId).orElseThrow();
+        entityManager.clear();
+
+        first.setStatus(BookingStatus.REJECTED);
+        bookingStorage.saveAndFlush(first);
+        entityManager.clear();
+        second.setStatus(BookingStatus.CANCELED);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingStorage.saveAndFlush(second));
+        entityManager.clear();
+        Booking stored = bookingStorage.findById(bookingId).orElseThrow();
+        assertEquals(BookingStatus.REJECTED, stored.getStatus());
+        assertEquals(1, stored.getVersion());
+    }
+
+    private static List<Long> ids(List<BookingListRow> bookings) {
+        return bookings.stream().map(BookingListRow::getId).collect(Collectors.toCollection(ArrayList::new));
+    }
+}
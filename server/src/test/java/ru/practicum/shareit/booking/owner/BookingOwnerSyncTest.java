@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.owner;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(BookingOwnerSync.class)
+class BookingOwnerSyncTest {
+    @Autowired
+    private BookingOwnerSync ownerSync;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    private User owner;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        User booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+        booking = bookingStorage.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .ownerId(owner.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void sync_whenOwnerIdMissing_thenFillFromItem() {
+        jdbcTemplate.update("update bookings set owner_id = null where id = ?", booking.getId());
+        assertEquals(List.of(booking.getId()), ownerSync.verify().getStaleSample());
+
+        ownerSync.backfill();
+        assertFalse(ownerSync.verify().isConsistent());
+        ownerSync.sync();
+        entityManager.clear();
+
+        assertTrue(ownerSync.verify().isConsistent());
+        assertEquals(owner.getId(), bookingStorage.findById(booking.getId()).orElseThrow().getOwnerId());
+    }
+
+    @Test
+    void sync_whenItemOwnerChanged_thenVerifyReportsAndSyncFixes() {
+        User newOwner = userStorage.save(User.builder().name("NewOwner").email("new@mail.ru").build());
+        entityManager.flush();
+        jdbcTemplate.update("update items set owner_id = ? where id = ?", newOwner.getId(), item.getId());
+
+        BookingOwnerConsistency consistency = ownerSync.verify();
+
+        assertFalse(consistency.isConsistent());
+        assertEquals(1, consistency.getStaleBookings());
+        assertEquals(1, ownerSync.sync());
+        assertTrue(ownerSync.verify().isConsistent());
+        assertEquals(List.of(booking.getId()), jdbcTemplate.queryForList(
+                "select id from bookings where owner_id = ?", Long.class, newOwner.getId()));
+    }
+
+    @Test
+    void migration_whenBookingsBeforeV4_thenOwnerIdFilled() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:v4-backfill;DB_CLOSE_DELAY=-1");
+        FluentConfiguration flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common");
+        flyway.target("3").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into users (id, name, email) values (1, 'Owner', 'owner@mail.ru'), "
+                + "(2, 'Booker', 'booker@mail.ru')");
+        jdbc.update("insert into items (id, name, description, is_available, owner_id) values (1, 'Brain', 'Amazing', true, 1)");
+        jdbc.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "values (1, now(), now(), 1, 2, 'WAITING')");
+
+        flyway.target(MigrationVersion.LATEST).load().migrate();
+
+        assertEquals(1L, jdbc.queryForObject("select owner_id from bookings where id = 1", Long.class));
+        jdbc.execute("drop all objects");
+    }
+}
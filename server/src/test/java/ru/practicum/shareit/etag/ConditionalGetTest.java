@@ -0,0 +1,220 @@
+package ru.practicum.shareit.etag;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Условные GET на вещь, бронирование и запрос: 304 по совпавшему ETag без построения ответа
+ * и новый ETag после каждого изменения, видимого в ответе.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemRequestStorage requestStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from requests");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void getItem_whenEtagMatches_thenNotModifiedWithSingleQuery() throws Exception {
+        String etag = etag("/items/" + item.getId(), owner);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MvcResult result = mvc.perform(get("/items/" + item.getId())
+                        .header(Constant.OWNER_ID, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        assertEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, result.getResponse().getContentLength());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getItem_whenOwnerAndOtherUser_thenDifferentEtags() throws Exception {
+        assertNotEquals(etag("/items/" + item.getId(), owner), etag("/items/" + item.getId(), booker));
+    }
+
+    @Test
+    void getItem_whenItemUpdated_thenEtagChanged() throws Exception {
+        String before = etag("/items/" + item.getId(), booker);
+
+        mvc.perform(patch("/items/" + item.getId())
+                        .header(Constant.OWNER_ID, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New brain\"}"))
+                .andExpect(status().isOk());
+
+        assertModified("/items/" + item.getId(), booker, before);
+    }
+
+    @Test
+    void getItem_whenCommentAddedOrAuthorRenamed_thenEtagChanged() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        String beforeComment = etag("/items/" + item.getId(), booker);
+
+        mvc.perform(post("/items/" + item.getId() + "/comment")
+                        .header(Constant.OWNER_ID, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"Good\"}"))
+                .andExpect(status().isOk());
+        String beforeRename = assertModified("/items/" + item.getId(), booker, beforeComment);
+
+        mvc.perform(patch("/users/" + booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+        assertModified("/items/" + item.getId(), booker, beforeRename);
+    }
+
+    @Test
+    void getItem_whenBookingApproved_thenOwnerEtagChanged() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        String ownerBefore = etag("/items/" + item.getId(), owner);
+        String bookingBefore = etag("/bookings/" + booking.getId(), booker);
+
+        mvc.perform(patch("/bookings/" + booking.getId())
+                        .header(Constant.OWNER_ID, owner.getId())
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+
+        assertModified("/items/" + item.getId(), owner, ownerBefore);
+        assertModified("/bookings/" + booking.getId(), booker, bookingBefore);
+    }
+
+    @Test
+    void getBooking_whenUserNotRelated_thenNotFoundEvenWithEtag() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        String etag = etag("/bookings/" + booking.getId(), booker);
+        User stranger = userStorage.save(User.builder().name("Stranger").email("stranger@mail.ru").build());
+
+        mvc.perform(get("/bookings/" + booking.getId())
+                        .header(Constant.OWNER_ID, stranger.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getRequest_whenItemAddedForRequest_thenEtagChanged() throws Exception {
+        ItemRequest request = requestStorage.save(ItemRequest.builder()
+                .description("Need brain")
+                .requestor(booker)
+                .created(LocalDateTime.now())
+                .build());
+        String before = etag("/requests/" + request.getId(), booker);
+        mvc.perform(get("/requests/" + request.getId())
+                        .header(Constant.OWNER_ID, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(post("/items")
+                        .header(Constant.OWNER_ID, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Brain\",\"description\":\"For you\",\"available\":true,"
+                                + "\"requestId\":" + request.getId() + "}"))
+                .andExpect(status().isOk());
+
+        assertModified("/requests/" + request.getId(), booker, before);
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingStorage.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .ownerId(owner.getId())
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private String etag(String path, User user) throws Exception {
+        String etag = mvc.perform(get(path).header(Constant.OWNER_ID, user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    // старый ETag больше не подходит, ответ приходит целиком с новым
+    private String assertModified(String path, User user, String oldEtag) throws Exception {
+        MvcResult result = mvc.perform(get(path)
+                        .header(Constant.OWNER_ID, user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, oldEtag))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(oldEtag, etag);
+        assertFalse(result.getResponse().getContentAsString().isEmpty());
+        return etag;
+    }
+}
@@ -2,6 +2,9 @@ package ru.practicum.shareit.exception;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.Booking;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,4 +51,16 @@ class ExceptionApiHandlerTest {
 
         assertEquals(statusException.getMessage(), response.getError());
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleOptimisticLockingFailureException() {
+        ObjectOptimisticLockingFailureException lockingException =
+                new ObjectOptimisticLockingFailureException(Booking.class, 1L);
+
+        ErrorMessage response = apiHandler.handleOptimisticLockingFailureException(lockingException);
+
+        assertEquals(HttpStatus.CONFLICT, response.getHttpStatus());
+        assertTrue(response.getError().startsWith("Бронирование с id 1"));
+        assertFalse(response.getError().contains(Booking.class.getPackageName()));
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.LikeItemSearchEngine;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Вещь в кэше второго уровня и список вещей владельца в кэше запросов:
+ * после ItemService.updateItem оба отдают новое состояние.
+ */
+@DataJpaTest
+@Import({ItemService.class, LikeItemSearchEngine.class, ItemSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemCacheTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User owner;
+    private long itemId;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        itemId = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build()).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clear() {
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void updateItem_whenCached_thenCacheUpdated() {
+        itemService.getItem(itemId, owner.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, itemId));
+
+        itemService.updateItem(owner.getId(), itemId, ItemDtoShort.builder().name("New brain").build());
+        ItemDto item = itemService.getItem(itemId, owner.getId());
+
+        assertEquals("New brain", item.getName());
+        assertEquals("Amazing brain", item.getDescription());
+        assertEquals(itemId, item.getId());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void getItemsByUser_whenRepeated_thenQueryCachedUntilItemUpdated() {
+        itemService.getItemsByUser(owner.getId(), 0, 10);
+        itemService.getItemsByUser(owner.getId(), 0, 10);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        itemService.updateItem(owner.getId(), itemId, ItemDtoShort.builder().available(false).build());
+        List<ItemDto> items = itemService.getItemsByUser(owner.getId(), 0, 10);
+
+        assertEquals(1, items.size());
+        assertFalse(items.get(0).getAvailable());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void touch_whenItemCached_thenEntityStaysInCache() {
+        itemService.getItem(itemId, owner.getId());
+
+        itemStorage.touch(List.of(itemId), LocalDateTime.now());
+
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, itemId));
+    }
+}
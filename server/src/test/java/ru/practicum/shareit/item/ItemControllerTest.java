@@ -8,10 +8,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.item.comment.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.CommentDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -20,6 +22,7 @@ import ru.practicum.shareit.item.dto.ItemDtoShort;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -28,6 +31,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -140,6 +144,34 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.description", is(itemResponseFull.getDescription())));
     }
 
+    @Test
+    void getItem_whenOwnerView_thenMustRevalidate() throws Exception {
+        when(itemService.getItemEtag(1L, 1L))
+                .thenReturn(Optional.of(EntityTags.of("item", 1L, 0L, LocalDateTime.now(), "owner", null)));
+        when(itemService.getItem(1L, 1L))
+                .thenReturn(itemResponseFull);
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void getItem_whenOtherUserView_thenNoCacheControl() throws Exception {
+        when(itemService.getItemEtag(1L, 2L))
+                .thenReturn(Optional.of(EntityTags.of("item", 1L, 0L, LocalDateTime.now())));
+        when(itemService.getItem(1L, 2L))
+                .thenReturn(itemResponseFull);
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(Constant.OWNER_ID, "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
     @Test
     void getItemsByUser_whenEmptyItemList_thenReturnEmptyList() throws Exception {
         List<ItemDto> items = List.of();
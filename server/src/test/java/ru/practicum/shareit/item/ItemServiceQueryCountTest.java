@@ -0,0 +1,157 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.LikeItemSearchEngine;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemService.class, LikeItemSearchEngine.class, ItemSearchIndex.class})
+class ItemServiceQueryCountTest {
+    private static final int BIG_OWNER_ITEMS = 500;
+    private static final int SMALL_OWNER_ITEMS = 5;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemRequestStorage requestStorage;
+    @Autowired
+    private EntityManager entityManager;
+    private User bigOwner;
+    private User smallOwner;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        bigOwner = userStorage.save(User.builder().name("BigOwner").email("big@mail.ru").build());
+        smallOwner = userStorage.save(User.builder().name("SmallOwner").email("small@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+
+        createItemsWithBookings(bigOwner, BIG_OWNER_ITEMS);
+        createItemsWithBookings(smallOwner, SMALL_OWNER_ITEMS);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getItemsByUser_whenOwnerHasManyItems_thenQueryCountDoesNotGrow() {
+        long smallOwnerStatements = countStatements(smallOwner, SMALL_OWNER_ITEMS);
+        entityManager.clear();
+        long bigOwnerStatements = countStatements(bigOwner, BIG_OWNER_ITEMS);
+
+        assertEquals(smallOwnerStatements, bigOwnerStatements);
+        assertTrue(bigOwnerStatements <= 4, "Запросов к БД: " + bigOwnerStatements);
+    }
+
+    @Test
+    void getItemsByUser_whenItemHasBookings_thenReturnLastAndNextApproved() {
+        List<ItemDto> items = itemService.getItemsByUser(smallOwner.getId(), 0, SMALL_OWNER_ITEMS);
+
+        assertEquals(SMALL_OWNER_ITEMS, items.size());
+        for (ItemDto item : items) {
+            Booking last = bookingStorage.findAll().stream()
+                    .filter(b -> b.getItem().getId() == item.getId() && b.getEnd().isBefore(LocalDateTime.now()))
+                    .findFirst().orElseThrow();
+            Booking next = bookingStorage.findAll().stream()
+                    .filter(b -> b.getItem().getId() == item.getId() && b.getStatus() == BookingStatus.APPROVED
+                            && b.getStart().isAfter(LocalDateTime.now()))
+                    .findFirst().orElseThrow();
+
+            assertEquals(last.getId(), item.getLastBooking().getId());
+            assertEquals(booker.getId(), item.getLastBooking().getBookerId());
+            assertEquals(next.getId(), item.getNextBooking().getId());
+        }
+    }
+
+    @Test
+    void createItem_whenRequestIdGiven_thenRequestNotLoaded() {
+        ItemRequest request = requestStorage.save(ItemRequest.builder()
+                .description("need brains")
+                .created(LocalDateTime.now())
+                .requestor(booker)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        itemService.createItem(smallOwner.getId(),
+                ItemDtoShort.builder().name("Brain").description("Amazing brain").available(true)
+                        .requestId(request.getId()).build());
+
+        assertEquals(0, statistics.getEntityStatistics(ItemRequest.class.getName()).getLoadCount());
+    }
+
+    private long countStatements(User owner, int expectedItems) {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        List<ItemDto> items = itemService.getItemsByUser(owner.getId(), 0, expectedItems);
+
+        assertEquals(expectedItems, items.size());
+        items.forEach(i -> {
+            assertNotNull(i.getLastBooking());
+            assertNotNull(i.getNextBooking());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createItemsWithBookings(User owner, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Item item = itemStorage.save(Item.builder()
+                    .name("Item " + i)
+                    .description("Description " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            bookings.add(booking(item, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED));
+            bookings.add(booking(item, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED));
+            bookings.add(booking(item, now.plusHours(1), now.plusHours(2), BookingStatus.REJECTED));
+        }
+        bookingStorage.saveAll(bookings);
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build();
+    }
+}
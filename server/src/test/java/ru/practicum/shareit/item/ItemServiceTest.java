@@ -15,6 +15,8 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.pagination.Paginator;
 import ru.practicum.shareit.request.ItemRequestStorage;
 import ru.practicum.shareit.user.User;
@@ -43,6 +45,10 @@ class ItemServiceTest {
     private CommentStorage commentStorage;
     @Mock
     private ItemRequestStorage requestStorage;
+    @Mock
+    private ItemSearchEngine searchEngine;
+    @Mock
+    private ItemSearchIndex searchIndex;
     @Captor
     private ArgumentCaptor<Item> itemArgumentCaptor;
     private User testUser;
@@ -69,8 +75,6 @@ class ItemServiceTest {
                 .owner(testUser)
                 .available(true)
                 .requestId(null)
-                .lastBooking(null)
-                .nextBooking(null)
                 .build();
     }
 
@@ -96,7 +100,7 @@ class ItemServiceTest {
 
         assertEquals(String.format("Пользователь с id %d не существует", userId), exception.getMessage());
         verify(userStorage, times(1)).findById(userId);
-        verify(requestStorage, times(0)).findById(itemDtoShort.getRequestId());
+        verify(requestStorage, times(0)).existsById(itemDtoShort.getRequestId());
         verify(itemStorage, times(0)).save(ItemMapper.toItem(itemDtoShort, testUser));
     }
 
@@ -107,14 +111,14 @@ class ItemServiceTest {
         long userId = 1L;
         when(userStorage.findById(anyLong()))
                 .thenReturn(Optional.of(testUser));
-        when(requestStorage.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(requestStorage.existsById(anyLong()))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.createItem(userId, itemDtoShort));
 
         assertEquals(String.format("Запрос с id %d не существует", itemDtoShort.getRequestId()), exception.getMessage());
         verify(userStorage, times(1)).findById(userId);
-        verify(requestStorage, times(1)).findById(itemDtoShort.getRequestId());
+        verify(requestStorage, times(1)).existsById(itemDtoShort.getRequestId());
         verify(itemStorage, times(0)).save(ItemMapper.toItem(itemDtoShort, testUser));
     }
 
@@ -147,7 +151,7 @@ class ItemServiceTest {
         NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.updateItem(testUser.getId(), testItem.getId(), itemDtoShort));
 
         assertEquals(String.format("Вещь с id %d не существует", testItem.getId()), exception.getMessage());
-        verify(requestStorage, times(0)).findById(itemDtoShort.getRequestId());
+        verify(requestStorage, times(0)).existsById(itemDtoShort.getRequestId());
         verify(itemStorage, times(0)).save(ItemMapper.toItem(itemDtoShort, testUser));
     }
 
@@ -231,14 +235,26 @@ class ItemServiceTest {
     @Test
     void searchItems_whenValidQuery_thenReturnItemList() {
         String query = "brain";
-        when(itemStorage.search(anyString(), any(PageRequest.class)))
+        when(searchEngine.search(anyString(), any(PageRequest.class)))
                 .thenReturn(List.of(testItem));
 
         List<ItemDtoShort> actualList = itemService.searchItems(query, 0, 5);
 
         assertEquals(1, actualList.size());
         assertEquals(ItemMapper.toItemDtoShort(testItem), actualList.get(0));
-        verify(itemStorage, times(1)).search(query, page);
+        verify(searchEngine, times(1)).search(query, page);
+    }
+
+    @Test
+    void searchItems_whenIndexAnswers_thenSearchEngineNotCalled() {
+        String query = "brain";
+        when(searchIndex.search(query, 0, 5))
+                .thenReturn(Optional.of(List.of(testItem)));
+
+        List<ItemDtoShort> actualList = itemService.searchItems(query, 0, 5);
+
+        assertEquals(List.of(ItemMapper.toItemDtoShort(testItem)), actualList);
+        verifyNoInteractions(searchEngine);
     }
 
     @Test
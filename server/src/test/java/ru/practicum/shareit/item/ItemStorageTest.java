@@ -19,15 +19,15 @@ class ItemStorageTest {
     ItemStorage itemStorage;
     @Autowired
     UserStorage userStorage;
+    User user;
 
     @BeforeEach
     void init() {
-        User user = User.builder()
+        user = userStorage.save(User.builder()
                 .id(1L)
                 .name("UserName")
                 .email("email@mail.ru")
-                .build();
-        userStorage.save(user);
+                .build());
 
         itemStorage.save(Item.builder()
                 .id(1L)
@@ -36,8 +36,6 @@ class ItemStorageTest {
                 .owner(user)
                 .available(true)
                 .requestId(null)
-                .lastBooking(null)
-                .nextBooking(null)
                 .build()
         );
     }
@@ -55,4 +53,28 @@ class ItemStorageTest {
         assertEquals(1, actualItems.size());
         assertEquals("Amazing brain", actualItems.get(0).getDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    void search_whenNameAndDescriptionMatch_thenNameMatchFirst() {
+        itemStorage.save(Item.builder()
+                .name("Brain in a jar")
+                .description("Glass jar")
+                .owner(user)
+                .available(true)
+                .build()
+        );
+        itemStorage.save(Item.builder()
+                .name("Hidden brain")
+                .description("Not available")
+                .owner(user)
+                .available(false)
+                .build()
+        );
+
+        List<Item> actualItems = itemStorage.search("BRAIN", Paginator.simplePage(0, 5));
+
+        assertEquals(2, actualItems.size());
+        assertEquals("Brain", actualItems.get(0).getName());
+        assertEquals("Brain in a jar", actualItems.get(1).getName());
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.LikeItemSearchEngine;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение обновления одной «горячей» вещи из многих потоков: оптимистическая блокировка с повтором
+ * (ItemService.updateItem) против SELECT ... FOR UPDATE. Пропускная способность и отказы пишутся в лог.
+ */
+@Slf4j
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "shareit.retry.delay-ms=5", "shareit.retry.max-delay-ms=50"})
+@Import({ItemService.class, LikeItemSearchEngine.class, ItemSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemUpdateContentionTest {
+    private static final int THREADS = 8;
+    private static final int UPDATES = 50;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void clear() {
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void updateItem_whenOptimisticWithRetry_thenEverySuccessBumpsVersion() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        int updated = run("оптимистическая блокировка с повтором", (thread, i) -> {
+            try {
+                itemService.updateItem(owner.getId(), item.getId(),
+                        ItemDtoShort.builder().name("Brain " + thread + "-" + i).build());
+                return true;
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                failures.incrementAndGet();
+                return false;
+            }
+        });
+
+        assertEquals(THREADS * UPDATES, updated + failures.get());
+        assertEquals(updated, itemStorage.findById(item.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateItem_whenPessimisticLock_thenNoFailures() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int updated = run("пессимистическая блокировка", (thread, i) -> transaction.execute(status -> {
+            Item locked = entityManager.find(Item.class, item.getId(), LockModeType.PESSIMISTIC_WRITE);
+            locked.setName("Brain " + thread + "-" + i);
+            return true;
+        }));
+
+        assertEquals(THREADS * UPDATES, updated);
+        assertEquals(updated, itemStorage.findById(item.getId()).orElseThrow().getVersion());
+    }
+
+    private int run(String mode, Update update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                int done = 0;
+                for (int i = 0; i < UPDATES; i++) {
+                    if (update.apply(thread, i)) {
+                        done++;
+                    }
+                }
+                return done;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        int updated = 0;
+        for (Future<Integer> future : futures) {
+            updated += future.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        executor.shutdown();
+        log.info("{}: {} обновлений, {} отказов за {} с - {} обновлений/с", mode,
+                updated, THREADS * UPDATES - updated, String.format("%.2f", seconds),
+                String.format("%.0f", updated / seconds));
+        return updated;
+    }
+
+    private interface Update {
+        boolean apply(int thread, int i);
+    }
+}
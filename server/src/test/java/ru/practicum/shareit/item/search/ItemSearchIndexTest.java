@@ -0,0 +1,184 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.pagination.Paginator;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "shareit.search.index.enabled=true")
+@Import({ItemService.class, LikeItemSearchEngine.class, ItemSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemSearchIndexTest {
+    @Autowired
+    private ItemSearchIndex searchIndex;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private LikeItemSearchEngine likeSearchEngine;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    private User owner;
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        drill = itemStorage.save(item("Дрель", "Аккумуляторная дрель", true));
+        saw = itemStorage.save(item("Пила", "Ручная пила для дерева", true));
+        itemStorage.save(item("Дрель ударная", "Сломана", false));
+        searchIndex.load();
+    }
+
+    @AfterEach
+    void clear() {
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void search_whenLoaded_thenReturnAvailableMatchesById() {
+        List<Item> found = searchIndex.search("дРеЛ", 0, 10).orElseThrow();
+
+        assertEquals(List.of(drill.getId()), ids(found));
+        assertEquals(List.of(saw.getId()), ids(searchIndex.search("ДЕРЕВ", 0, 10).orElseThrow()));
+        assertTrue(searchIndex.search("молоток", 0, 10).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void search_whenPaged_thenSameOrderAsDatabaseSearch() {
+        // совпадение только в описании раньше по id, чем второе совпадение в названии
+        itemStorage.save(item("Сверло", "Сверло по бетону для дрели", true));
+        itemStorage.save(item("Дрель 2", "Ещё одна", true));
+        itemStorage.save(item("Кейс", "Кейс для дрели и пилы", true));
+        searchIndex.load();
+
+        for (String text : List.of("дрел", "пил", "ДРЕЛИ")) {
+            for (int size = 1; size <= 3; size++) {
+                for (int from = 0; from < 5; from += size) {
+                    assertEquals(ids(likeSearchEngine.search(text, Paginator.simplePage(from, size))),
+                            ids(searchIndex.search(text, from, size).orElseThrow()),
+                            String.format("'%s', from=%d, size=%d", text, from, size));
+                }
+            }
+        }
+    }
+
+    @Test
+    void search_whenQueryTooShort_thenEmpty() {
+        assertTrue(searchIndex.search("пи", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_whenPageRequested_thenSkipPreviousPages() {
+        Item secondDrill = itemStorage.save(item("Дрель 2", "Ещё одна дрель", true));
+        searchIndex.load();
+
+        assertEquals(List.of(drill.getId()), ids(searchIndex.search("дрель", 0, 1).orElseThrow()));
+        assertEquals(List.of(secondDrill.getId()), ids(searchIndex.search("дрель", 1, 1).orElseThrow()));
+    }
+
+    @Test
+    void createAndUpdateItem_whenCommitted_thenIndexFollowsService() {
+        ItemDtoShort hammer = new ItemDtoShort();
+        hammer.setName("Молоток");
+        hammer.setDescription("Тяжёлый");
+        hammer.setAvailable(true);
+        long hammerId = itemService.createItem(owner.getId(), hammer).getId();
+
+        assertEquals(List.of(hammerId), ids(searchIndex.search("молот", 0, 10).orElseThrow()));
+
+        ItemDtoShort update = new ItemDtoShort();
+        update.setName("Кувалда");
+        itemService.updateItem(owner.getId(), hammerId, update);
+
+        assertTrue(searchIndex.search("молот", 0, 10).orElseThrow().isEmpty());
+        assertEquals(List.of(hammerId), ids(searchIndex.search("кувалд", 0, 10).orElseThrow()));
+
+        update = new ItemDtoShort();
+        update.setAvailable(false);
+        itemService.updateItem(owner.getId(), hammerId, update);
+
+        assertTrue(searchIndex.search("кувалд", 0, 10).orElseThrow().isEmpty());
+        assertTrue(searchIndex.verify().isConsistent());
+    }
+
+    @Test
+    void onUpdated_whenCallbacksOutOfCommitOrder_thenIndexHasLastCommit() {
+        // коммит A: Дрель -> Кувалда, коммит B: Кувалда -> Кирка; колбэк B приходит раньше колбэка A
+        Item sledgehammer = item("Кувалда", drill.getDescription(), true);
+        Item pickaxe = item("Кирка", drill.getDescription(), true);
+        drill.setName("Кирка");
+        itemStorage.save(drill);
+
+        searchIndex.onUpdated(drill.getId(), "Кувалда", drill.getDescription(), true, pickaxe);
+        searchIndex.onUpdated(drill.getId(), "Дрель", drill.getDescription(), true, sledgehammer);
+
+        assertEquals(List.of(drill.getId()), ids(searchIndex.search("кирк", 0, 10).orElseThrow()));
+        assertTrue(searchIndex.search("кувалд", 0, 10).orElseThrow().isEmpty());
+        assertTrue(searchIndex.verify().isConsistent());
+    }
+
+    @Test
+    void verify_whenTableChangedBypassingService_thenReportDifference() {
+        Item hidden = itemStorage.save(item("Отвёртка", "Крестовая", true));
+        saw.setAvailable(false);
+        itemStorage.save(saw);
+
+        ItemSearchIndexConsistency consistency = searchIndex.verify();
+
+        assertFalse(consistency.isConsistent());
+        assertEquals(List.of(hidden.getId()), consistency.getMissingSample());
+        assertEquals(List.of(saw.getId()), consistency.getStaleSample());
+    }
+
+    @Test
+    void footprint_whenLoaded_thenCountAvailableItems() {
+        ItemSearchIndexFootprint footprint = searchIndex.footprint();
+
+        assertTrue(footprint.isReady());
+        assertEquals(2, footprint.getItems());
+        assertTrue(footprint.getTokens() > 0);
+        assertTrue(footprint.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    void load_whenTrigramEngine_thenIndexStaysDisabled() {
+        ItemSearchIndex trigramIndex = new ItemSearchIndex(itemStorage, true, "trigram");
+        trigramIndex.load();
+
+        assertFalse(trigramIndex.footprint().isEnabled());
+        assertTrue(trigramIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    private Item item(String name, String description, boolean available) {
+        return Item.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.practicum.shareit.booking.BookingOverlapLocks;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.exception.BookingStatusException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsTest {
+    @Mock
+    private BookingStorage bookingStorage;
+    @Mock
+    private ItemStorage itemStorage;
+    @Mock
+    private UserStorage userStorage;
+    @Mock
+    private BookingOverlapLocks overlapLocks;
+    private SimpleMeterRegistry registry;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void init() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(
+                new BookingService(bookingStorage, itemStorage, userStorage, overlapLocks));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetrics(registry));
+        bookingService = factory.getProxy();
+    }
+
+    @Test
+    void bookingList_whenOwnerState_thenTaggedByRoleAndState() {
+        when(bookingStorage.findAllByOwnerIdAndStatus(eq(10L), eq(BookingStatus.WAITING), any()))
+                .thenReturn(List.of());
+        when(userStorage.findById(10L)).thenReturn(Optional.of(User.builder().id(10L).build()));
+
+        bookingService.getSortBookingByOwner(10L, "WAITING", 0, 10);
+
+        assertEquals(1, registry.get(ServiceMetrics.SERVICE_TIMER)
+                .tags("service", "BookingService", "method", "getSortBookingByOwner", "outcome", "success")
+                .timer().count());
+        assertEquals(1, registry.get(ServiceMetrics.BOOKINGS_TIMER)
+                .tags("role", "owner", "state", "WAITING", "page", "offset", "outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void bookingList_whenCursor_thenBookerCursorPage() {
+        when(bookingStorage.findAllByBookerIdAfterCursor(eq(1L), any(), anyLong(), any())).thenReturn(List.of());
+        when(userStorage.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).build()));
+
+        bookingService.getSortBookingByUserAfter(1L, "ALL", new PageCursor(LocalDateTime.now(), 5L), 10);
+
+        assertEquals(1, registry.get(ServiceMetrics.BOOKINGS_TIMER)
+                .tags("role", "booker", "state", "ALL", "page", "cursor", "outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void bookingList_whenUnknownState_thenBadRequestWithoutRawState() {
+        assertThrows(BookingStatusException.class,
+                () -> bookingService.getSortBookingByUser(1L, "SOMETHING", 0, 10));
+
+        Timer timer = registry.get(ServiceMetrics.BOOKINGS_TIMER).tag("state", "UNKNOWN").timer();
+        assertEquals("bad_request", timer.getId().getTag("outcome"));
+        assertTrue(registry.find(ServiceMetrics.BOOKINGS_TIMER).tag("state", "SOMETHING").meters().isEmpty());
+    }
+
+    @Test
+    void getBookingById_whenMissing_thenNotFoundOutcome() {
+        when(bookingStorage.findWithItemById(7L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingById(1L, 7L));
+
+        assertEquals(1, registry.get(ServiceMetrics.SERVICE_TIMER)
+                .tags("method", "getBookingById", "outcome", "not_found")
+                .timer().count());
+        assertTrue(registry.find(ServiceMetrics.BOOKINGS_TIMER).meters().isEmpty());
+    }
+
+    @Test
+    void textLength_thenBoundedBuckets() {
+        assertEquals("0", ServiceMetrics.textLength("  "));
+        assertEquals("1-2", ServiceMetrics.textLength("ab"));
+        assertEquals("3-5", ServiceMetrics.textLength(" дрель "));
+        assertEquals("11-20", ServiceMetrics.textLength("аккумуляторный"));
+        assertEquals("21+", ServiceMetrics.textLength("аккумуляторная дрель для дачи"));
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decode_whenEncodedCursor_thenReturnSamePosition() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 5, 1, 10, 0, 0, 123456000), 42L);
+
+        PageCursor actualCursor = PageCursor.decode(cursor.encode());
+
+        assertEquals(cursor, actualCursor);
+    }
+
+    @Test
+    void decode_whenInvalidCursor_thenReturnException() {
+        String notBase64 = "!!!";
+        String withoutId = Base64.getUrlEncoder().encodeToString("2023-05-01T10:00".getBytes(StandardCharsets.UTF_8));
+        String invalidDate = Base64.getUrlEncoder().encodeToString("yesterday|1".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(ValidationException.class, () -> PageCursor.decode(notBase64));
+        assertThrows(ValidationException.class, () -> PageCursor.decode(withoutId));
+        assertThrows(ValidationException.class, () -> PageCursor.decode(invalidDate));
+    }
+}
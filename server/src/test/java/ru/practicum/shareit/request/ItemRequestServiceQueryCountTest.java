@@ -0,0 +1,117 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.pagination.Paginator;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ItemRequestService.class)
+class ItemRequestServiceQueryCountTest {
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private ItemRequestStorage requestStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManager entityManager;
+    private Statistics statistics;
+    private User requestor;
+    private User viewer;
+    private ItemRequest request;
+
+    @BeforeEach
+    void init() {
+        requestor = userStorage.save(User.builder().name("Requestor").email("requestor@mail.ru").build());
+        viewer = userStorage.save(User.builder().name("Viewer").email("viewer@mail.ru").build());
+        for (int i = 0; i < 3; i++) {
+            request = requestStorage.save(ItemRequest.builder()
+                    .description("need brains " + i)
+                    .created(LocalDateTime.now().minusHours(i))
+                    .requestor(requestor)
+                    .build());
+        }
+        itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(viewer)
+                .requestId(request.getId())
+                .build());
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getRequestsByOwner_whenPageNotEmpty_thenNoExistenceCheck() {
+        PageRequest page = Paginator.withSort(0, 10, Constant.SORT_BY_CREATED_DESC);
+        long pageStatements = countStatements(() -> {
+            Set<Long> ids = requestStorage.findAllByRequestorId(requestor.getId(), page).stream()
+                    .map(ItemRequest::getId)
+                    .collect(Collectors.toSet());
+            itemStorage.findAllByRequestIdIn(ids);
+        });
+        long serviceStatements = countStatements(() ->
+                assertEquals(3, requestService.getRequestsByOwner(requestor.getId(), 0, 10).size()));
+
+        assertEquals(pageStatements, serviceStatements);
+    }
+
+    @Test
+    void getRequestsByOwner_whenUserNotExist_thenNotFound() {
+        long statements = countStatements(() -> assertThrows(NotFoundException.class,
+                () -> requestService.getRequestsByOwner(-1L, 0, 10)));
+
+        // пустая выборка и select пользователя по id
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void getAllRequests_whenCalled_thenOnlyViewerLoaded() {
+        countStatements(() -> assertEquals(3, requestService.getAllRequests(viewer.getId(), 0, 10).size()));
+
+        // автор запросов - ленивый прокси с id, загружается только проверяемый зритель
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void getRequestsById_whenCalled_thenOnlyViewerLoaded() {
+        long statements = countStatements(() ->
+                assertEquals(1, requestService.getRequestsById(viewer.getId(), request.getId()).getItems().size()));
+
+        // select зрителя, запрос и вещи по запросу; автор не загружается - в ответе только его id
+        assertEquals(3, statements);
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -85,8 +85,6 @@ class ItemRequestServiceTest {
         List<ItemRequest> itemReqs = new ArrayList<>();
         itemReqs.add(testItemRequest);
 
-        when(userStorage.findById(anyLong()))
-                .thenReturn(Optional.of(testUser));
         when(itemRequestStorage.findAllByRequestorId(anyLong(), any(PageRequest.class)))
                 .thenReturn(itemReqs);
 
@@ -94,7 +92,7 @@ class ItemRequestServiceTest {
 
         assertEquals(1, actualList.size());
         assertEquals(ItemRequestMapper.toItemRequestDtoResponse(testItemRequest, List.of()), actualList.get(0));
-        verify(userStorage, times(1)).findById(testUser.getId());
+        verifyNoInteractions(userStorage);
         verify(itemRequestStorage, times(1)).findAllByRequestorId(testUser.getId(), page);
     }
 
@@ -108,7 +106,7 @@ class ItemRequestServiceTest {
 
         assertEquals(String.format("Пользователь с id %d не существует", userId), exception.getMessage());
         verify(userStorage, times(1)).findById(userId);
-        verify(itemRequestStorage, times(0)).findAllByRequestorId(userId, page);
+        verify(itemRequestStorage, times(1)).findAllByRequestorId(eq(userId), any(PageRequest.class));
     }
 
     @Test
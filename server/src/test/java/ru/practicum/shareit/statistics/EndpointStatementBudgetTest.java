@@ -0,0 +1,296 @@
+package ru.practicum.shareit.statistics;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentStorage;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов на каждый эндпоинт при холодном кэше второго уровня. У владельца несколько вещей
+ * с бронированиями, у комментариев и запросов разные авторы - лишний select на вещь или пользователя
+ * сразу выходит за бюджет из statement-budget.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointStatementBudgetTest {
+    private static final int ITEMS = 5;
+    private static StatementBudget budget;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private CommentStorage commentStorage;
+    @Autowired
+    private ItemRequestStorage requestStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DataSource dataSource;
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+    private final List<Booking> waiting = new ArrayList<>();
+
+    @BeforeAll
+    static void loadBudget() {
+        budget = new StatementBudget();
+    }
+
+    @AfterAll
+    static void writeReport() {
+        budget.writeReport();
+    }
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        booker = userStorage.save(User.builder().name("Booker").email("booker@mail.ru").build());
+        request = requestStorage.save(ItemRequest.builder()
+                .description("Need brain")
+                .requestor(booker)
+                .created(LocalDateTime.now())
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            // у каждой вещи свой автор комментария, у него своя вещь и свой запрос - жадные связи тянули бы всех
+            User other = userStorage.save(User.builder().name("Other " + i).email("other" + i + "@mail.ru").build());
+            itemStorage.save(Item.builder()
+                    .name("Other brain " + i)
+                    .description("Other amazing brain " + i)
+                    .available(true)
+                    .owner(other)
+                    .build());
+            requestStorage.save(ItemRequest.builder()
+                    .description("Need brain " + i)
+                    .requestor(other)
+                    .created(now)
+                    .build());
+            Item saved = itemStorage.save(Item.builder()
+                    .name("Brain " + i)
+                    .description("Amazing brain " + i)
+                    .available(true)
+                    .owner(owner)
+                    .requestId(request.getId())
+                    .build());
+            saveBooking(saved, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+            saveBooking(saved, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+            waiting.add(saveBooking(saved, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING));
+            commentStorage.save(Comment.builder()
+                    .text("Good " + i)
+                    .itemId(saved.getId())
+                    .author(other)
+                    .created(now)
+                    .build());
+            item = saved;
+        }
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from requests");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void getUser() throws Exception {
+        assertBudget("user.get", get("/users/" + owner.getId()));
+    }
+
+    @Test
+    void getUsers() throws Exception {
+        assertBudget("user.list", get("/users"));
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        assertBudget("user.update", patch("/users/" + booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Renamed\"}"));
+    }
+
+    @Test
+    void createItem() throws Exception {
+        assertBudget("item.create", post("/items")
+                .header(Constant.OWNER_ID, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Brain\",\"description\":\"For you\",\"available\":true,"
+                        + "\"requestId\":" + request.getId() + "}"));
+    }
+
+    @Test
+    void updateItem() throws Exception {
+        assertBudget("item.update", patch("/items/" + item.getId())
+                .header(Constant.OWNER_ID, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"New brain\"}"));
+    }
+
+    @Test
+    void getItemByOwner() throws Exception {
+        assertBudget("item.get-by-owner", get("/items/" + item.getId()).header(Constant.OWNER_ID, owner.getId()));
+    }
+
+    @Test
+    void getItemByOther() throws Exception {
+        assertBudget("item.get-by-other", get("/items/" + item.getId()).header(Constant.OWNER_ID, booker.getId()));
+    }
+
+    @Test
+    void getItemsByOwner() throws Exception {
+        assertBudget("item.list-by-owner", get("/items")
+                .header(Constant.OWNER_ID, owner.getId())
+                .param("size", String.valueOf(ITEMS)));
+    }
+
+    @Test
+    void searchItems() throws Exception {
+        assertBudget("item.search", get("/items/search")
+                .param("text", "brain")
+                .param("size", String.valueOf(2 * ITEMS)));
+    }
+
+    @Test
+    void createComment() throws Exception {
+        assertBudget("item.comment", post("/items/" + item.getId() + "/comment")
+                .header(Constant.OWNER_ID, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"text\":\"Good\"}"));
+    }
+
+    @Test
+    void createBooking() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        assertBudget("booking.create", post("/bookings")
+                .header(Constant.OWNER_ID, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\":" + item.getId() + ",\"start\":\"" + start + "\",\"end\":\""
+                        + start.plusDays(1) + "\"}"));
+    }
+
+    @Test
+    void approveBooking() throws Exception {
+        assertBudget("booking.approve", patch("/bookings/" + waiting.get(0).getId())
+                .header(Constant.OWNER_ID, owner.getId())
+                .param("approved", "true"));
+    }
+
+    @Test
+    void approveBookings() throws Exception {
+        StringBuilder ids = new StringBuilder();
+        for (Booking booking : waiting) {
+            ids.append(ids.length() == 0 ? "" : ",").append(booking.getId());
+        }
+        assertBudget("booking.approve-batch", patch("/bookings")
+                .header(Constant.OWNER_ID, owner.getId())
+                .param("approved", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingIds\":[" + ids + "]}"));
+    }
+
+    @Test
+    void getBooking() throws Exception {
+        assertBudget("booking.get", get("/bookings/" + waiting.get(0).getId()).header(Constant.OWNER_ID, booker.getId()));
+    }
+
+    @Test
+    void getBookingsByBooker() throws Exception {
+        assertBudget("booking.list-by-booker", get("/bookings")
+                .header(Constant.OWNER_ID, booker.getId())
+                .param("size", "10"));
+    }
+
+    @Test
+    void getBookingsByOwner() throws Exception {
+        assertBudget("booking.list-by-owner", get("/bookings/owner")
+                .header(Constant.OWNER_ID, owner.getId())
+                .param("size", "10"));
+    }
+
+    @Test
+    void createRequest() throws Exception {
+        assertBudget("request.create", post("/requests")
+                .header(Constant.OWNER_ID, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"Need another brain\"}"));
+    }
+
+    @Test
+    void getOwnRequests() throws Exception {
+        assertBudget("request.list-own", get("/requests").header(Constant.OWNER_ID, booker.getId()));
+    }
+
+    @Test
+    void getAllRequests() throws Exception {
+        assertBudget("request.list-all", get("/requests/all")
+                .header(Constant.OWNER_ID, owner.getId())
+                .param("size", String.valueOf(ITEMS)));
+    }
+
+    @Test
+    void getRequest() throws Exception {
+        assertBudget("request.get", get("/requests/" + request.getId()).header(Constant.OWNER_ID, booker.getId()));
+    }
+
+    private void assertBudget(String endpoint, MockHttpServletRequestBuilder request) throws Exception {
+        budget.reset(entityManagerFactory);
+        try (JdbcStatementCounter counter = JdbcStatementCounter.attach(dataSource)) {
+            mvc.perform(request).andExpect(status().isOk());
+            budget.check(endpoint, counter.getStatements());
+        }
+    }
+
+    private Booking saveBooking(Item bookedItem, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingStorage.save(Booking.builder()
+                .item(bookedItem)
+                .booker(booker)
+                .ownerId(owner.getId())
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
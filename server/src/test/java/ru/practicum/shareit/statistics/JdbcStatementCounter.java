@@ -0,0 +1,53 @@
+package ru.practicum.shareit.statistics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Счётчик statement на уровне JDBC через datasource-proxy, как у SqlAccountingListener: пакет - одно обращение к БД.
+ * В отличие от статистики Hibernate видит и запросы мимо него - JdbcTemplate, NamedParameterJdbcTemplate.
+ * Учитывается только поток, подключивший счётчик: фоновые задачи в соседних потоках не сбивают итог.
+ */
+public class JdbcStatementCounter implements QueryExecutionListener, AutoCloseable {
+    private final List<QueryExecutionListener> listeners;
+    private final Thread thread = Thread.currentThread();
+    private long statements;
+
+    private JdbcStatementCounter(List<QueryExecutionListener> listeners) {
+        this.listeners = listeners;
+        listeners.add(this);
+    }
+
+    public static JdbcStatementCounter attach(DataSource dataSource) {
+        assertTrue(dataSource instanceof ProxyDataSource, "DataSource не обёрнут datasource-proxy: " + dataSource);
+        return new JdbcStatementCounter(((ProxyDataSource) dataSource).getProxyConfig()
+                .getQueryListener().getListeners());
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (Thread.currentThread() == thread) {
+            statements++;
+        }
+    }
+
+    @Override
+    public void close() {
+        listeners.remove(this);
+    }
+}
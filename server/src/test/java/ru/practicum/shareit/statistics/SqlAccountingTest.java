@@ -0,0 +1,121 @@
+package ru.practicum.shareit.statistics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.constant.Constant;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Заголовки X-Sql-* и метрики shareit.sql.* совпадают с тем, что насчитал Hibernate,
+ * и записываются по шаблону пути, а не по фактическому URI.
+ */
+@SpringBootTest(properties = "shareit.sql.headers=true")
+@AutoConfigureMockMvc
+class SqlAccountingTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userStorage.save(User.builder().name("Owner").email("owner@mail.ru").build());
+        item = itemStorage.save(Item.builder()
+                .name("Brain")
+                .description("Amazing brain")
+                .available(true)
+                .owner(owner)
+                .build());
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void getItem_thenHeadersMatchHibernateAndMetricByPattern() throws Exception {
+        double before = summary("GET", "/items/{itemId}").map(DistributionSummary::totalAmount).orElse(0.0);
+
+        MvcResult result = mvc.perform(get("/items/{itemId}", item.getId())
+                        .header(Constant.OWNER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        long statements = Long.parseLong(result.getResponse().getHeader(RequestSqlStats.STATEMENTS_HEADER));
+        long prepared = entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getPrepareStatementCount();
+        assertTrue(statements > 0);
+        assertEquals(prepared, statements);
+        assertTrue(Long.parseLong(result.getResponse().getHeader(RequestSqlStats.ROWS_HEADER)) > 0);
+        assertNotNull(result.getResponse().getHeader(RequestSqlStats.TIME_HEADER));
+        assertEquals(statements, summary("GET", "/items/{itemId}").orElseThrow().totalAmount() - before);
+    }
+
+    @Test
+    void createUser_thenInsertedRowCounted() throws Exception {
+        MvcResult result = mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New\",\"email\":\"new@mail.ru\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue(Long.parseLong(result.getResponse().getHeader(RequestSqlStats.ROWS_HEADER)) >= 1);
+        assertTrue(registry.get(SqlAccountingFilter.ROWS).tags("method", "POST", "uri", "/users")
+                .summary().totalAmount() >= 1);
+    }
+
+    @Test
+    void sqlOutsideRequest_thenNotCounted() {
+        long count = registry.find(SqlAccountingFilter.STATEMENTS).summaries().stream()
+                .mapToLong(DistributionSummary::count)
+                .sum();
+
+        userStorage.findAll();
+
+        assertNull(RequestSqlStats.current());
+        assertEquals(count, registry.find(SqlAccountingFilter.STATEMENTS).summaries().stream()
+                .mapToLong(DistributionSummary::count)
+                .sum());
+    }
+
+    private Optional<DistributionSummary> summary(String method, String uri) {
+        return Optional.ofNullable(registry.find(SqlAccountingFilter.STATEMENTS)
+                .tags("method", method, "uri", uri)
+                .summary());
+    }
+}
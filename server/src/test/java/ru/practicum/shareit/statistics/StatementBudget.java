@@ -0,0 +1,68 @@
+package ru.practicum.shareit.statistics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бюджет SQL-запросов на эндпоинт по счёту JDBC (JdbcStatementCounter) - вместе с запросами мимо Hibernate.
+ * Лимиты лежат в statement-budget.properties,
+ * фактические значения после прогона пишутся в target/statement-counts.properties - по ним видно,
+ * какой эндпоинт подешевел и на сколько можно опустить лимит.
+ */
+@Slf4j
+public class StatementBudget {
+    private static final String BUDGET = "/statement-budget.properties";
+    private static final Path REPORT = Path.of("target", "statement-counts.properties");
+
+    private final Properties limits = new Properties();
+    private final Map<String, Long> recorded = new TreeMap<>();
+
+    public StatementBudget() {
+        try (InputStream in = StatementBudget.class.getResourceAsStream(BUDGET)) {
+            assertNotNull(in, "Нет файла " + BUDGET);
+            limits.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // холодный кэш второго уровня: считаем запросы так, будто сущности ещё ни разу не читались
+    public void reset(EntityManagerFactory entityManagerFactory) {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    public void check(String endpoint, long actual) {
+        recorded.put(endpoint, actual);
+        String limit = limits.getProperty(endpoint);
+        assertNotNull(limit, "Для эндпоинта " + endpoint + " не задан бюджет в " + BUDGET);
+        assertTrue(actual <= Long.parseLong(limit),
+                String.format("%s: %d запросов при бюджете %s", endpoint, actual, limit));
+        if (actual < Long.parseLong(limit)) {
+            log.info("{}: {} запросов при бюджете {} - бюджет можно снизить", endpoint, actual, limit);
+        }
+    }
+
+    public void writeReport() {
+        try (Writer writer = Files.newBufferedWriter(REPORT, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : recorded.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + System.lineSeparator());
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось записать {}: {}", REPORT, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingOverlapLocks;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пользователь в кэше второго уровня: повторное чтение без запроса к БД,
+ * после изменения и удаления через UserService - актуальное состояние, а не закэшированное.
+ * Проверки существования пользователя в других сервисах тоже обходятся без запроса к users.
+ */
+@DataJpaTest
+@Import({UserService.class, BookingService.class, BookingOverlapLocks.class, ItemRequestService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserCacheTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private long userId;
+
+    @BeforeEach
+    void init() {
+        userId = userStorage.save(User.builder().name("User").email("user@mail.ru").build()).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clear() {
+        userStorage.deleteAll();
+    }
+
+    @Test
+    void getUserById_whenCalledRepeatedly_thenServedFromCache() {
+        userService.getUserById(userId);
+        statistics.clear();
+
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void userExistenceChecks_whenUserCached_thenNoUserStatement() {
+        userService.getUserById(userId);
+        statistics.clear();
+
+        // пустые страницы: в базу идут только выборки бронирований, запросов и вещей по ним, пользователь - из кэша
+        assertTrue(bookingService.getSortBookingByUser(userId, "ALL", 0, 10).isEmpty());
+        assertTrue(requestService.getAllRequests(userId, 0, 10).isEmpty());
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void updateUserById_whenCached_thenCacheUpdated() {
+        userService.getUserById(userId);
+
+        userService.updateUserById(userId, UserDto.builder().name("Renamed").email("renamed@mail.ru").build());
+        statistics.clear();
+        UserDto user = userService.getUserById(userId);
+
+        assertEquals("Renamed", user.getName());
+        assertEquals("renamed@mail.ru", user.getEmail());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteUserById_whenCached_thenEvicted() {
+        userService.getUserById(userId);
+
+        userService.deleteUserById(userId);
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(userId));
+    }
+}
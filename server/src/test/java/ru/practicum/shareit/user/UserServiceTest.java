@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemStorage;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -23,6 +24,8 @@ class UserServiceTest {
     private UserService userService;
     @Mock
     UserStorage userStorage;
+    @Mock
+    ItemStorage itemStorage;
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
     private User testUser;